@@ -0,0 +1,195 @@
+import java.time.Duration;
+
+/**
+ * Limits how long a search or permutation generation may run and how much it may return,
+ * and optionally reports its progress. When a limit is reached or the cancellation token is
+ * cancelled, the operation stops and returns the results found so far, together with the
+ * {@link StopReason}. Limits are checked every few hundred steps of the work, so they cost
+ * next to nothing in the inner loop and are honoured within a few hundred steps.
+ * <pre>
+ * CancellationToken token = new CancellationToken();
+ * Budget budget = new Budget()
+ *     .timeout(Duration.ofSeconds(5))
+ *     .maxResults(1_000_000)
+ *     .maxMemoryBytes(256L * 1024 * 1024)
+ *     .cancellationToken(token)
+ *     .onProgress(progress -> System.err.println(progress), Duration.ofSeconds(1));
+ * </pre>
+ */
+public class Budget {
+    /**
+     * Why an operation stopped.
+     */
+    public enum StopReason {
+        /** All the work was done. */
+        COMPLETED,
+        /** The cancellation token was cancelled. */
+        CANCELLED,
+        /** The timeout elapsed. */
+        DEADLINE,
+        /** Another result would have exceeded the maximum number of results. */
+        MAX_RESULTS,
+        /** Another result would have exceeded the memory estimate limit. */
+        MAX_MEMORY
+    }
+
+    private long timeoutNanos = Long.MAX_VALUE;
+    private long maxResults = Long.MAX_VALUE;
+    private long maxMemoryBytes = Long.MAX_VALUE;
+    private CancellationToken token;
+    private ProgressListener listener;
+    private long progressIntervalNanos = Long.MAX_VALUE;
+
+    /**
+     * Returns a budget without limits or progress reports.
+     */
+    public static Budget unlimited() {
+        return new Budget();
+    }
+
+    /**
+     * Stops the operation once the given time has passed since it started.
+     *
+     * @param timeout The longest time the operation may run
+     * @return This budget
+     * @throws IllegalArgumentException if timeout is null or negative
+     */
+    public Budget timeout(Duration timeout) {
+        if (timeout == null || timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout cannot be null or negative: " + timeout);
+        }
+        this.timeoutNanos = saturatedNanos(timeout);
+        return this;
+    }
+
+    /**
+     * Stops the operation instead of returning more than the given number of results.
+     *
+     * @param count The maximum number of results
+     * @return This budget
+     * @throws IllegalArgumentException if count is negative
+     */
+    public Budget maxResults(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Maximum results cannot be negative: " + count);
+        }
+        this.maxResults = count;
+        return this;
+    }
+
+    /**
+     * Stops the operation instead of letting the estimated size of its results exceed the
+     * given number of bytes. The estimate counts each result string with its object headers.
+     *
+     * @param bytes The maximum estimated size of the results
+     * @return This budget
+     * @throws IllegalArgumentException if bytes is negative
+     */
+    public Budget maxMemoryBytes(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Maximum memory cannot be negative: " + bytes);
+        }
+        this.maxMemoryBytes = bytes;
+        return this;
+    }
+
+    /**
+     * Stops the operation when the token is cancelled.
+     *
+     * @param token The token to check
+     * @return This budget
+     * @throws IllegalArgumentException if token is null
+     */
+    public Budget cancellationToken(CancellationToken token) {
+        if (token == null) {
+            throw new IllegalArgumentException("Cancellation token cannot be null");
+        }
+        this.token = token;
+        return this;
+    }
+
+    /**
+     * Reports progress at most once per interval while the operation runs, and once more
+     * when it stops. The listener is called on the thread doing the work.
+     *
+     * @param listener Receives the progress reports
+     * @param interval The minimum time between two reports
+     * @return This budget
+     * @throws IllegalArgumentException if listener or interval is null, or interval is negative
+     */
+    public Budget onProgress(ProgressListener listener, Duration interval) {
+        if (listener == null || interval == null || interval.isNegative()) {
+            throw new IllegalArgumentException("Progress listener and a non-negative interval are required");
+        }
+        this.listener = listener;
+        this.progressIntervalNanos = saturatedNanos(interval);
+        return this;
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    long getMaxResults() {
+        return maxResults;
+    }
+
+    long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    CancellationToken getCancellationToken() {
+        return token;
+    }
+
+    ProgressListener getProgressListener() {
+        return listener;
+    }
+
+    long getProgressIntervalNanos() {
+        return progressIntervalNanos;
+    }
+
+    /**
+     * Receives progress reports from a running operation.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(Progress progress);
+    }
+
+    /**
+     * A snapshot of how far an operation has got.
+     */
+    public static class Progress {
+        /** Units of work done: directories listed by a search, permutations generated by a generation. */
+        public final long workDone;
+        /** Results returned so far. */
+        public final long results;
+        /** Fraction of the whole work covered, from 0 to 1, or -1 when the total is unknown. */
+        public final double fraction;
+        /** Time since the operation started, in milliseconds. */
+        public final long elapsedMillis;
+
+        public Progress(long workDone, long results, double fraction, long elapsedMillis) {
+            this.workDone = workDone;
+            this.results = results;
+            this.fraction = fraction;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            String covered = fraction < 0 ? "" : String.format(", %.1f%% covered", fraction * 100);
+            return String.format("%d done, %d results%s, %d ms", workDone, results, covered, elapsedMillis);
+        }
+    }
+}
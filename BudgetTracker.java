@@ -0,0 +1,129 @@
+import java.util.function.LongSupplier;
+
+/**
+ * Enforces a {@link Budget} for one operation running on one thread. The operation calls
+ * {@link #tick()} once per step of work, which only counts; every {@link #CHECK_INTERVAL}
+ * steps the clock and the cancellation token are read and progress may be reported.
+ * {@link #admit} is called before each result is kept and enforces the result and memory
+ * limits exactly.
+ */
+class BudgetTracker {
+    // Steps between two reads of the clock and the cancellation token; a power of two
+    static final int CHECK_INTERVAL = 256;
+    // Estimated bytes of a String besides its characters: headers, length fields and a list slot
+    private static final long STRING_OVERHEAD_BYTES = 64;
+
+    private final Budget budget;
+    private final LongSupplier workDone;
+    private final double totalWork;
+    private final long startTime;
+    private long lastReport;
+    private long ticks;
+    private long results;
+    private long memory;
+    private Budget.StopReason stopReason;
+
+    /**
+     * Starts the clock of the budget.
+     *
+     * @param budget The limits to enforce
+     * @param workDone Reports the units of work done so far, for progress reports
+     * @param totalWork Units of work in the whole operation, or 0 if unknown
+     */
+    BudgetTracker(Budget budget, LongSupplier workDone, double totalWork) {
+        this.budget = budget;
+        this.workDone = workDone;
+        this.totalWork = totalWork;
+        this.startTime = System.nanoTime();
+        this.lastReport = startTime;
+    }
+
+    /**
+     * Counts one step of work. The first step is always checked, so an operation started
+     * with a cancelled token does no work.
+     *
+     * @return true if the operation must stop
+     */
+    boolean tick() {
+        if ((ticks++ & (CHECK_INTERVAL - 1)) != 0) {
+            return stopReason != null;
+        }
+        return check();
+    }
+
+    /**
+     * Checks the cancellation token and the clock, and reports progress when it is due.
+     *
+     * @return true if the operation must stop
+     */
+    boolean check() {
+        if (stopReason != null) {
+            return true;
+        }
+        CancellationToken token = budget.getCancellationToken();
+        if (token != null && token.isCancelled()) {
+            stopReason = Budget.StopReason.CANCELLED;
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - startTime >= budget.getTimeoutNanos()) {
+            stopReason = Budget.StopReason.DEADLINE;
+            return true;
+        }
+        if (budget.getProgressListener() != null && now - lastReport >= budget.getProgressIntervalNanos()) {
+            lastReport = now;
+            report(now);
+        }
+        return false;
+    }
+
+    /**
+     * Decides whether one more result may be kept, counting it if so.
+     *
+     * @param bytes Estimated size of the result
+     * @return false if the result would exceed a limit; the operation must then stop
+     */
+    boolean admit(long bytes) {
+        if (results >= budget.getMaxResults()) {
+            stopReason = Budget.StopReason.MAX_RESULTS;
+            return false;
+        }
+        if (memory + bytes > budget.getMaxMemoryBytes()) {
+            stopReason = Budget.StopReason.MAX_MEMORY;
+            return false;
+        }
+        results++;
+        memory += bytes;
+        return true;
+    }
+
+    /**
+     * Ends the operation, sending a final progress report.
+     *
+     * @return Why the operation stopped
+     */
+    Budget.StopReason finish() {
+        if (stopReason == null) {
+            stopReason = Budget.StopReason.COMPLETED;
+        }
+        if (budget.getProgressListener() != null) {
+            report(System.nanoTime());
+        }
+        return stopReason;
+    }
+
+    /**
+     * Returns the estimated size in bytes of a String of the given length held in a list.
+     */
+    static long stringBytes(int length) {
+        return STRING_OVERHEAD_BYTES + 2L * length;
+    }
+
+    private void report(long now) {
+        long done = workDone.getAsLong();
+        double fraction = stopReason == Budget.StopReason.COMPLETED ? 1
+            : totalWork > 0 ? Math.min(1, done / totalWork) : -1;
+        budget.getProgressListener().onProgress(
+            new Budget.Progress(done, results, fraction, (now - startTime) / 1_000_000));
+    }
+}
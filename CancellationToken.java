@@ -0,0 +1,22 @@
+/**
+ * Lets one thread ask a running search or generation to stop. The work checks the token
+ * periodically and returns what it has produced so far, marked as incomplete. A token can
+ * be shared by several operations; once cancelled it stays cancelled.
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    /**
+     * Asks every operation using this token to stop at its next check.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether {@link #cancel()} has been called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
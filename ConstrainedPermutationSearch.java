@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Depth-first search over the distinct permutations of a string that places one character
+ * at a time and abandons a partial permutation as soon as it breaks a constraint. Characters
+ * are drawn from a multiset in sorted order, so duplicates are never generated and matches
+ * come out in lexicographic order.
+ */
+class ConstrainedPermutationSearch {
+    private final PermutationConstraints constraints;
+    // Distinct characters of the input in sorted order, with how many are still unplaced
+    private final char[] symbols;
+    private final int[] counts;
+    // Required character at each position, or -1
+    private final int[] fixed;
+    // How many later fixed positions still need each symbol
+    private final int[] futureDemand;
+    private final char[] current;
+    private final List<String> matches = new ArrayList<>();
+    private long nodesVisited;
+    private long nodesPruned;
+
+    private ConstrainedPermutationSearch(String input, PermutationConstraints constraints, int[] fixed) {
+        this.constraints = constraints;
+        this.fixed = fixed;
+        this.current = new char[input.length()];
+
+        char[] sorted = input.toCharArray();
+        Arrays.sort(sorted);
+        char[] distinct = new char[sorted.length];
+        int[] multiplicity = new int[sorted.length];
+        int d = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                distinct[d++] = sorted[i];
+            }
+            multiplicity[d - 1]++;
+        }
+        this.symbols = Arrays.copyOf(distinct, d);
+        this.counts = Arrays.copyOf(multiplicity, d);
+        this.futureDemand = new int[d];
+    }
+
+    /**
+     * Runs the search.
+     *
+     * @param input The string for which to generate permutations
+     * @param constraints The constraints every match must satisfy
+     * @return The matches and search counters
+     */
+    static PermutationSearchResult run(String input, PermutationConstraints constraints) {
+        int[] fixed = constraints.fixedPositions(input.length());
+        if (fixed == null) {
+            return new PermutationSearchResult(new ArrayList<>(), 0, 0);
+        }
+        ConstrainedPermutationSearch search = new ConstrainedPermutationSearch(input, constraints, fixed);
+        if (search.reserveFixedCharacters()) {
+            search.extend(0, constraints.getDictionary());
+        }
+        return new PermutationSearchResult(search.matches, search.nodesVisited, search.nodesPruned);
+    }
+
+    /**
+     * Records which symbols the fixed positions need.
+     *
+     * @return false if the input does not hold enough of some required character
+     */
+    private boolean reserveFixedCharacters() {
+        for (int required : fixed) {
+            if (required < 0) {
+                continue;
+            }
+            int s = Arrays.binarySearch(symbols, (char) required);
+            if (s < 0 || ++futureDemand[s] > counts[s]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void extend(int position, PermutationConstraints.TrieNode node) {
+        if (position == current.length) {
+            if (node == null || node.word) {
+                matches.add(new String(current));
+            } else {
+                nodesPruned++;
+            }
+            return;
+        }
+
+        for (int s = 0; s < symbols.length; s++) {
+            if (counts[s] == 0) {
+                continue;
+            }
+            char c = symbols[s];
+            boolean isFixed = fixed[position] >= 0;
+            if (isFixed ? fixed[position] != c : counts[s] <= futureDemand[s]) {
+                // Wrong character for a fixed position, or one a later fixed position needs
+                nodesPruned++;
+                continue;
+            }
+            if (position > 0 && constraints.isForbidden(current[position - 1], c)) {
+                nodesPruned++;
+                continue;
+            }
+            PermutationConstraints.TrieNode child = null;
+            if (node != null) {
+                child = node.children.get(c);
+                if (child == null) {
+                    nodesPruned++;
+                    continue;
+                }
+            }
+
+            nodesVisited++;
+            current[position] = c;
+            counts[s]--;
+            if (isFixed) {
+                futureDemand[s]--;
+            }
+            extend(position + 1, child);
+            if (isFixed) {
+                futureDemand[s]++;
+            }
+            counts[s]++;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks whether a file contains a byte sequence, for
+ * {@link FileFinderRecursive#findFileContaining}. Files are scanned through memory-mapped
+ * regions with the Boyer-Moore-Horspool algorithm, which skips ahead by up to the length of
+ * the pattern on a mismatch. A scan stops at the first occurrence, and at most
+ * {@link #maxBytesPerFile} bytes of each file are examined. Instances are thread-safe and
+ * count the bytes they scan.
+ */
+public class ContentMatcher {
+    // Size of each memory-mapped region; consecutive regions overlap by the pattern length - 1
+    static final long REGION_BYTES = 64L * 1024 * 1024;
+    /** Longest pattern accepted; keeps each region step at least half a region long. */
+    public static final int MAX_PATTERN_BYTES = (int) (REGION_BYTES / 2);
+
+    private final byte[] pattern;
+    private final int[] shifts = new int[256];
+    private long maxBytesPerFile = Long.MAX_VALUE;
+    private final AtomicLong bytesScanned = new AtomicLong();
+    private final AtomicLong filesScanned = new AtomicLong();
+
+    /**
+     * Creates a matcher for the UTF-8 encoding of the given text.
+     *
+     * @param text The text to look for
+     * @throws IllegalArgumentException if text is null or empty, or encodes to more than
+     *         {@link #MAX_PATTERN_BYTES} bytes
+     */
+    public ContentMatcher(String text) {
+        this(text == null ? null : text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a matcher for the given bytes.
+     *
+     * @param pattern The bytes to look for
+     * @throws IllegalArgumentException if pattern is null or empty, or longer than
+     *         {@link #MAX_PATTERN_BYTES}
+     */
+    public ContentMatcher(byte[] pattern) {
+        if (pattern == null || pattern.length == 0) {
+            throw new IllegalArgumentException("Content pattern cannot be null or empty");
+        }
+        if (pattern.length > MAX_PATTERN_BYTES) {
+            throw new IllegalArgumentException("Content pattern cannot be longer than "
+                + MAX_PATTERN_BYTES + " bytes: " + pattern.length);
+        }
+        this.pattern = pattern.clone();
+        // Distance from the last occurrence of each byte (except the final one) to the end
+        Arrays.fill(shifts, pattern.length);
+        for (int i = 0; i < pattern.length - 1; i++) {
+            shifts[pattern[i] & 0xff] = pattern.length - 1 - i;
+        }
+    }
+
+    /**
+     * Limits how many bytes from the start of each file are scanned. Occurrences that end
+     * beyond the limit are not found.
+     *
+     * @param bytes The maximum number of bytes to scan per file
+     * @return This matcher
+     * @throws IllegalArgumentException if bytes is less than 1
+     */
+    public ContentMatcher maxBytesPerFile(long bytes) {
+        if (bytes < 1) {
+            throw new IllegalArgumentException("Maximum bytes per file must be at least 1: " + bytes);
+        }
+        this.maxBytesPerFile = bytes;
+        return this;
+    }
+
+    /**
+     * Checks whether the file contains the pattern within the scanned prefix.
+     *
+     * @param file The file to scan
+     * @return true at the first occurrence found
+     * @throws IOException if the file cannot be read
+     */
+    public boolean matches(Path file) throws IOException {
+        filesScanned.incrementAndGet();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long limit = Math.min(channel.size(), maxBytesPerFile);
+            long position = 0;
+            while (limit - position >= pattern.length) {
+                long length = Math.min(REGION_BYTES, limit - position);
+                ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int found = indexOf(region);
+                if (found >= 0) {
+                    bytesScanned.addAndGet(found + pattern.length);
+                    return true;
+                }
+                if (position + length >= limit) {
+                    bytesScanned.addAndGet(length);
+                    break;
+                }
+                // Step back so that an occurrence spanning two regions is not missed
+                long step = length - (pattern.length - 1);
+                bytesScanned.addAndGet(step);
+                position += step;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the first occurrence of the pattern in the buffer with Boyer-Moore-Horspool.
+     *
+     * @return The index of the first occurrence, or -1
+     */
+    int indexOf(ByteBuffer buffer) {
+        int last = pattern.length - 1;
+        int end = buffer.limit() - pattern.length;
+        int i = 0;
+        while (i <= end) {
+            byte tail = buffer.get(i + last);
+            // Compare the last byte first: it is the one the shift table is built around
+            if (tail == pattern[last]) {
+                int j = last - 1;
+                while (j >= 0 && buffer.get(i + j) == pattern[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i;
+                }
+            }
+            i += shifts[tail & 0xff];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of bytes examined so far across all files.
+     */
+    public long getBytesScanned() {
+        return bytesScanned.get();
+    }
+
+    /**
+     * Returns the number of files scanned so far.
+     */
+    public long getFilesScanned() {
+        return filesScanned.get();
+    }
+}
@@ -0,0 +1,26 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one directory listing during a file search. Listings are
+ * frequent and short, so recordings may want to raise the event's threshold.
+ */
+@Name("filefinder.DirectoryListing")
+@Label("Directory Listing")
+@Category({ "File Finder" })
+@Description("Reading the entries of one directory")
+@StackTrace(false)
+class DirectoryListingEvent extends jdk.jfr.Event {
+    @Label("Directory")
+    String directory;
+
+    @Label("Entries")
+    @Description("Number of entries, or -1 when the directory is read lazily")
+    int entries;
+
+    @Label("Backend")
+    String backend;
+}
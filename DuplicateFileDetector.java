@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Groups files with identical content in three rounds, each run only on files still tied
+ * with another: equal size, then a hash of the first and last block, then a hash of the
+ * whole file. Hashing runs on a shared executor, with at most {@code parallelism} files
+ * hashed at once; blocks are read into per-thread direct buffers and whole files through
+ * memory-mapped regions. Most files with a unique size or distinct ends are never read in
+ * full. Files that cannot be read are counted and left out of the groups.
+ */
+class DuplicateFileDetector {
+    // Bytes hashed from each end of a file in the partial round
+    static final int SAMPLE_BYTES = 4096;
+    // Size of each memory-mapped region when hashing whole files
+    private static final long MAP_REGION_BYTES = 64L * 1024 * 1024;
+
+    // Shared by all detectors, so that pool threads keep one buffer however many searches run
+    private static final ThreadLocal<ByteBuffer> SAMPLE_BUFFERS =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(SAMPLE_BYTES));
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final AtomicLong bytesRead = new AtomicLong();
+    // Distinct bytes of each file that were hashed at least once
+    private final AtomicLong bytesCovered = new AtomicLong();
+    private final AtomicLong unreadableFiles = new AtomicLong();
+
+    /**
+     * Creates a detector for one search.
+     *
+     * @param executor Runs the hashing; it is not shut down
+     * @param parallelism How many files are hashed at once, at most
+     */
+    DuplicateFileDetector(ExecutorService executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Finds the groups of identical files among the given ones.
+     *
+     * @param sizes Size in bytes of each file found by the walk
+     * @param statistics Counters of the walk, passed through to the report
+     * @return The duplicate groups and read counters
+     */
+    DuplicateReport detect(Map<Path, Long> sizes, TraversalStatistics statistics) {
+        long totalBytes = 0;
+        Map<Long, List<Path>> bySize = new HashMap<>();
+        for (Map.Entry<Path, Long> entry : sizes.entrySet()) {
+            totalBytes += entry.getValue();
+            bySize.computeIfAbsent(entry.getValue(), size -> new ArrayList<>()).add(entry.getKey());
+        }
+
+        List<List<Path>> duplicates = new ArrayList<>();
+        List<Path> candidates = new ArrayList<>();
+        for (Map.Entry<Long, List<Path>> group : bySize.entrySet()) {
+            if (group.getValue().size() < 2) {
+                continue;
+            }
+            if (group.getKey() == 0) {
+                duplicates.add(group.getValue()); // Empty files are identical without reading
+            } else {
+                candidates.addAll(group.getValue());
+            }
+        }
+
+        // Round 2: first and last block; files that fit in two blocks are then fully hashed
+        Map<String, List<Path>> byPartialHash = groupByHash(candidates,
+            path -> partialHash(path, sizes.get(path)), sizes);
+        candidates.clear();
+        for (List<Path> group : byPartialHash.values()) {
+            if (group.size() < 2) {
+                continue;
+            }
+            if (sizes.get(group.get(0)) <= 2L * SAMPLE_BYTES) {
+                duplicates.add(group);
+            } else {
+                candidates.addAll(group);
+            }
+        }
+
+        // Round 3: whole files
+        Map<String, List<Path>> byFullHash = groupByHash(candidates, this::fullHash, sizes);
+        for (List<Path> group : byFullHash.values()) {
+            if (group.size() >= 2) {
+                duplicates.add(group);
+            }
+        }
+
+        List<List<String>> groups = new ArrayList<>();
+        long duplicateBytes = 0;
+        duplicates.sort(Comparator.comparing((List<Path> group) -> sizes.get(group.get(0))).reversed()
+            .thenComparing(group -> Collections.min(group)));
+        for (List<Path> group : duplicates) {
+            List<String> paths = new ArrayList<>();
+            for (Path path : group) {
+                paths.add(path.toString());
+            }
+            Collections.sort(paths);
+            groups.add(paths);
+            duplicateBytes += sizes.get(group.get(0)) * (group.size() - 1);
+        }
+        return new DuplicateReport(groups, sizes.size(), bytesRead.get(), totalBytes - bytesCovered.get(),
+            duplicateBytes, unreadableFiles.get(), statistics);
+    }
+
+    /**
+     * Hashes the files in parallel and groups them by size and hash. Up to
+     * {@code parallelism} workers take the files one after the other. Files that cannot be
+     * read are counted and left out.
+     */
+    private Map<String, List<Path>> groupByHash(List<Path> files, Hasher hasher, Map<Path, Long> sizes) {
+        String[] hashes = new String[files.size()];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < hashes.length; i = next.getAndIncrement()) {
+                try {
+                    hashes[i] = hasher.hash(files.get(i));
+                } catch (IOException | UncheckedIOException e) {
+                    unreadableFiles.incrementAndGet(); // It cannot be shown to be a duplicate
+                }
+            }
+        };
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int w = 0; w < Math.min(parallelism, hashes.length); w++) {
+                workers.add(executor.submit(worker));
+            }
+            for (Future<?> running : workers) {
+                running.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new HashMap<>();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw (RuntimeException) e.getCause();
+        } finally {
+            for (Future<?> running : workers) {
+                running.cancel(true);
+            }
+        }
+
+        Map<String, List<Path>> groups = new HashMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != null) {
+                // Include the size so that files of different sizes never share a group
+                String key = sizes.get(files.get(i)) + ":" + hashes[i];
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(files.get(i));
+            }
+        }
+        return groups;
+    }
+
+    private String partialHash(Path file, long size) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = SAMPLE_BUFFERS.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            readBlock(channel, buffer, 0, digest);
+            if (size > SAMPLE_BYTES) {
+                readBlock(channel, buffer, Math.max(SAMPLE_BYTES, size - SAMPLE_BYTES), digest);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void readBlock(FileChannel channel, ByteBuffer buffer, long position, MessageDigest digest)
+            throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        bytesRead.addAndGet(buffer.remaining());
+        bytesCovered.addAndGet(buffer.remaining()); // The two blocks never overlap
+        digest.update(buffer);
+    }
+
+    private String fullHash(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_REGION_BYTES) {
+                long length = Math.min(MAP_REGION_BYTES, size - position);
+                MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                digest.update(region);
+                bytesRead.addAndGet(length);
+            }
+            // The first and last block were already covered by the partial round
+            bytesCovered.addAndGet(size - 2L * SAMPLE_BYTES);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Hashes one file.
+     */
+    @FunctionalInterface
+    private interface Hasher {
+        String hash(Path file) throws IOException;
+    }
+}
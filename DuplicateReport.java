@@ -0,0 +1,86 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a duplicate-file search: groups of files with identical content, and how
+ * much reading it took to establish them.
+ */
+public class DuplicateReport {
+    private final List<List<String>> groups;
+    private final long filesScanned;
+    private final long bytesRead;
+    private final long bytesSkipped;
+    private final long duplicateBytes;
+    private final long unreadableFiles;
+    private final TraversalStatistics statistics;
+
+    DuplicateReport(List<List<String>> groups, long filesScanned, long bytesRead, long bytesSkipped,
+                    long duplicateBytes, long unreadableFiles, TraversalStatistics statistics) {
+        this.groups = Collections.unmodifiableList(groups);
+        this.filesScanned = filesScanned;
+        this.bytesRead = bytesRead;
+        this.bytesSkipped = bytesSkipped;
+        this.duplicateBytes = duplicateBytes;
+        this.unreadableFiles = unreadableFiles;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the groups of identical files, largest files first. Each group holds at
+     * least two full paths in sorted order.
+     */
+    public List<List<String>> getGroups() {
+        return groups;
+    }
+
+    /**
+     * Returns the number of regular files found by the walk.
+     */
+    public long getFilesScanned() {
+        return filesScanned;
+    }
+
+    /**
+     * Returns the number of bytes read to hash file contents.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Returns the number of bytes in scanned files that were never read, because the file
+     * had a unique size or differed from the others in its first or last block.
+     */
+    public long getBytesSkipped() {
+        return bytesSkipped;
+    }
+
+    /**
+     * Returns the space taken by redundant copies, i.e. all but one file of each group.
+     */
+    public long getDuplicateBytes() {
+        return duplicateBytes;
+    }
+
+    /**
+     * Returns the number of files that had to be read but could not be opened or hashed.
+     * They are left out of the groups, so some duplicates may be missing.
+     */
+    public long getUnreadableFiles() {
+        return unreadableFiles;
+    }
+
+    /**
+     * Returns the counters of the walk.
+     */
+    public TraversalStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Duplicate groups: %d\nFiles scanned: %d\nBytes read: %d\nBytes skipped: %d\n"
+            + "Duplicate bytes: %d\nUnreadable files: %d\n%s", groups.size(), filesScanned, bytesRead, bytesSkipped,
+            duplicateBytes, unreadableFiles, statistics);
+    }
+}
@@ -1,15 +1,138 @@
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A utility class that provides functionality to recursively search for files in directories.
+ * Instances hold only configuration, so one finder can be shared by concurrent callers.
  */
 public class FileFinderRecursive {
-    private List<String> foundPaths;
+    /**
+     * The file system API used to walk the directory tree.
+     */
+    public enum Backend {
+        /** Recursive {@link File#listFiles()} walk with separate stat calls per entry. */
+        JAVA_IO,
+        /** {@link java.nio.file.DirectoryStream} walk reading {@link BasicFileAttributes} once per entry. */
+        NIO
+    }
+
+    /** Default number of directory handles the NIO backend keeps open during one walk. */
+    public static final int DEFAULT_MAX_OPEN_DIRECTORIES = 64;
+
+    /** Default number of directory entries one walk keeps in memory for the directories on its path. */
+    public static final int DEFAULT_MAX_BUFFERED_ENTRIES = 65536;
+
+    private final Backend backend;
+    private final boolean followLinks;
+    private final int maxOpenDirectories;
+    private final int maxBufferedEntries;
+    // Counters of the last search completed by each calling thread; the matched paths are
+    // not kept, so idle pool threads do not hold on to large results
+    private final ThreadLocal<TraversalStatistics> lastStatistics = ThreadLocal.withInitial(TraversalStatistics::new);
 
     public FileFinderRecursive() {
-        this.foundPaths = new ArrayList<>();
+        this(Backend.JAVA_IO);
+    }
+
+    /**
+     * Creates a finder using the given backend without following symbolic links.
+     * 
+     * @param backend The file system API used to walk the directory tree
+     */
+    public FileFinderRecursive(Backend backend) {
+        this(backend, false);
+    }
+
+    /**
+     * Creates a finder using the given backend.
+     * 
+     * @param backend The file system API used to walk the directory tree
+     * @param followLinks Whether the NIO backend descends into symbolic links to directories;
+     *        directory cycles reached through links are detected and skipped. Links to
+     *        regular files are reported either way, as by the java.io backend. The java.io
+     *        backend always follows links, as {@link File#isDirectory()} does.
+     * @throws IllegalArgumentException if backend is null
+     */
+    public FileFinderRecursive(Backend backend, boolean followLinks) {
+        this(backend, followLinks, DEFAULT_MAX_OPEN_DIRECTORIES);
+    }
+
+    /**
+     * Creates a finder with a limit on the directory handles held by one walk.
+     * Both backends walk with an explicit stack, so the depth of the tree is never
+     * limited by the thread stack. The NIO backend streams each directory on the
+     * current path; beyond {@code maxOpenDirectories} levels it reads the remaining
+     * entries of a directory into memory and closes its handle before descending.
+     * 
+     * @param backend The file system API used to walk the directory tree
+     * @param followLinks Whether the NIO backend descends into symbolic links to directories
+     * @param maxOpenDirectories How many directory handles the NIO backend keeps open at once
+     * @throws IllegalArgumentException if backend is null or the handle limit is not positive
+     */
+    public FileFinderRecursive(Backend backend, boolean followLinks, int maxOpenDirectories) {
+        this(backend, followLinks, maxOpenDirectories, DEFAULT_MAX_BUFFERED_ENTRIES);
+    }
+
+    /**
+     * Creates a finder with limits on the directory handles and the directory entries
+     * held by one walk. Entries of the directories on the current path that are not yet
+     * visited are kept in memory up to {@code maxBufferedEntries}; beyond that a directory
+     * is listed again when the walk returns to it, resuming after the entries already
+     * visited. The directory being read is not counted by the java.io backend, which
+     * always lists a directory at once.
+     * 
+     * @param backend The file system API used to walk the directory tree
+     * @param followLinks Whether the NIO backend descends into symbolic links to directories
+     * @param maxOpenDirectories How many directory handles the NIO backend keeps open at once
+     * @param maxBufferedEntries How many entries of the directories on the current path one
+     *        walk keeps in memory; 0 lists every directory again instead
+     * @throws IllegalArgumentException if backend is null, the handle limit is not positive
+     *         or the entry limit is negative
+     */
+    public FileFinderRecursive(Backend backend, boolean followLinks, int maxOpenDirectories,
+                               int maxBufferedEntries) {
+        if (backend == null) {
+            throw new IllegalArgumentException("Backend cannot be null");
+        }
+        if (maxOpenDirectories < 1) {
+            throw new IllegalArgumentException("Open directory limit must be at least 1: " + maxOpenDirectories);
+        }
+        if (maxBufferedEntries < 0) {
+            throw new IllegalArgumentException("Buffered entry limit cannot be negative: " + maxBufferedEntries);
+        }
+        this.backend = backend;
+        this.followLinks = followLinks;
+        this.maxOpenDirectories = maxOpenDirectories;
+        this.maxBufferedEntries = maxBufferedEntries;
     }
 
     /**
@@ -21,6 +144,511 @@ public class FileFinderRecursive {
      * @throws IllegalArgumentException if directory path is invalid or file name is empty
      */
     public List<String> findFile(String directoryPath, String fileName) {
+        return findFile(directoryPath, fileName, SearchFilter.none());
+    }
+
+    /**
+     * Searches for a file, skipping the parts of the tree rejected by the filter.
+     * Pruned directories are never listed; {@link #getLastStatistics()} reports how
+     * much of the tree was visited.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param filter Restricts the directories visited and the files reported
+     * @return List of full paths where the file was found
+     * @throws IllegalArgumentException if directory path is invalid, file name is empty
+     *         or filter is null
+     */
+    public List<String> findFile(String directoryPath, String fileName, SearchFilter filter) {
+        return search(directoryPath, fileName, filter).getPaths();
+    }
+
+    /**
+     * Searches for a file and returns the matches together with the counters of the walk.
+     * All search state lives in the returned result, so one finder can serve any number
+     * of concurrent callers.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param filter Restricts the directories visited and the files reported
+     * @return The paths found and the traversal statistics of this search
+     * @throws IllegalArgumentException if directory path is invalid, file name is empty
+     *         or filter is null
+     */
+    public SearchResult search(String directoryPath, String fileName, SearchFilter filter) {
+        return search(directoryPath, fileName, filter, Budget.unlimited());
+    }
+
+    /**
+     * Searches for a file within a budget. When the budget runs out or its cancellation
+     * token is cancelled, the walk stops and the paths found so far are returned with
+     * {@link SearchResult#isComplete()} false. Progress reports count the directories
+     * listed; the fraction of the tree covered is unknown and reported as -1.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param filter Restricts the directories visited and the files reported
+     * @param budget Limits on time, results and memory, and the progress listener
+     * @return The paths found, the traversal statistics and why the search stopped
+     * @throws IllegalArgumentException if directory path is invalid, file name is empty,
+     *         or filter or budget is null
+     */
+    public SearchResult search(String directoryPath, String fileName, SearchFilter filter, Budget budget) {
+        if (budget == null) {
+            throw new IllegalArgumentException("Budget cannot be null");
+        }
+        File directory = validateSearchRoot(directoryPath, fileName);
+
+        List<String> foundPaths = new ArrayList<>();
+        try (FileSearchIterator matches = openSearch(directory, fileName::equals, filter)) {
+            BudgetTracker tracker = new BudgetTracker(budget, matches.getStatistics()::getDirectoriesListed, 0);
+            matches.setBudget(tracker);
+            while (matches.hasNext()) {
+                String path = matches.next().toString();
+                if (!tracker.admit(BudgetTracker.stringBytes(path.length()))) {
+                    break;
+                }
+                foundPaths.add(path);
+            }
+            SearchResult result = new SearchResult(foundPaths, matches.getStatistics(), tracker.finish());
+            lastStatistics.set(result.getStatistics());
+            return result;
+        }
+    }
+
+    /**
+     * Searches for a file asynchronously on the default executor, which runs each search
+     * on a virtual thread when the JVM supports them and on a cached thread pool otherwise.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @return Future completed with the full paths where the file was found
+     * @throws IllegalArgumentException if directory path is invalid or file name is empty
+     */
+    public CompletableFuture<List<String>> findFileAsync(String directoryPath, String fileName) {
+        return findFileAsync(directoryPath, fileName, SearchFilter.none(), AsyncExecutorHolder.EXECUTOR)
+            .thenApply(SearchResult::getPaths);
+    }
+
+    /**
+     * Searches for a file asynchronously on the given executor. The arguments are
+     * validated before the search is submitted.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param filter Restricts the directories visited and the files reported
+     * @param executor Runs the search
+     * @return Future completed with the result of the search
+     * @throws IllegalArgumentException if directory path is invalid, file name is empty,
+     *         or filter or executor is null
+     */
+    public CompletableFuture<SearchResult> findFileAsync(String directoryPath, String fileName,
+                                                         SearchFilter filter, Executor executor) {
+        validateSearchRoot(directoryPath, fileName);
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        return CompletableFuture.supplyAsync(() -> search(directoryPath, fileName, filter), executor);
+    }
+
+    /**
+     * Searches for a file lazily, yielding each match as soon as the walk reaches it.
+     * Short-circuiting operations such as {@code findFirst()} or {@code limit(n)} stop
+     * the walk without listing the rest of the tree. The stream holds open directory
+     * handles and should be closed, e.g. with try-with-resources.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @return Sequential stream of absolute paths where the file was found
+     * @throws IllegalArgumentException if directory path is invalid or file name is empty
+     */
+    public Stream<Path> findFileStream(String directoryPath, String fileName) {
+        return findFileStream(directoryPath, fileName, SearchFilter.none());
+    }
+
+    /**
+     * Searches for a file lazily, skipping the parts of the tree rejected by the filter.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param filter Restricts the directories visited and the files reported
+     * @return Sequential stream of absolute paths where the file was found
+     * @throws IllegalArgumentException if directory path is invalid, file name is empty
+     *         or filter is null
+     * @see #findFileStream(String, String)
+     */
+    public Stream<Path> findFileStream(String directoryPath, String fileName, SearchFilter filter) {
+        File directory = validateSearchRoot(directoryPath, fileName);
+
+        FileSearchIterator matches = openSearch(directory, fileName::equals, filter);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(matches, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(matches::close);
+    }
+
+    /**
+     * Searches for a file using a persistent {@link FileNameIndex} stored in the given file.
+     * The index is built on first use; later calls only relist directories whose
+     * modification time changed and then answer from the index in O(matches).
+     * The index reports links to regular files but never enters linked directories, like
+     * the NIO backend without link following; the java.io backend enters them, so for
+     * trees with linked directories its {@link #findFile} results can include more paths.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param indexFile The file holding the index for this directory
+     * @return List of full paths where the file was found
+     * @throws IllegalArgumentException if directory path is invalid or file name is empty
+     * @throws IOException if the index file cannot be written
+     */
+    public List<String> findFileIndexed(String directoryPath, String fileName, Path indexFile)
+            throws IOException {
+        File directory = validateSearchRoot(directoryPath, fileName);
+        if (indexFile == null) {
+            throw new IllegalArgumentException("Index file cannot be null");
+        }
+        return FileNameIndex.open(directory.toPath(), indexFile).lookup(fileName);
+    }
+
+    /**
+     * Searches for several names and patterns in a single walk of the directory tree.
+     * Each query is either an exact file name, a {@code glob:} pattern such as
+     * {@code glob:*.txt}, or a {@code regex:} pattern matched against the whole name,
+     * following the syntax of {@link java.nio.file.FileSystem#getPathMatcher}.
+     * A file matching several queries is listed under each of them.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param queries The names and patterns to search for
+     * @return Map from each query, in the given order, to the full paths it matched
+     * @throws IllegalArgumentException if directory path is invalid, queries are empty
+     *         or a pattern is malformed
+     * @see FileNameMatcher
+     */
+    public Map<String, List<String>> findFiles(String directoryPath, Collection<String> queries) {
+        return findFiles(directoryPath, queries, SearchFilter.none());
+    }
+
+    /**
+     * Searches for several names and patterns in a single walk, skipping the parts of
+     * the tree rejected by the filter.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param queries The names and patterns to search for
+     * @param filter Restricts the directories visited and the files reported
+     * @return Map from each query, in the given order, to the full paths it matched
+     * @throws IllegalArgumentException if directory path is invalid, queries are empty,
+     *         a pattern is malformed or filter is null
+     * @see #findFiles(String, Collection)
+     */
+    public Map<String, List<String>> findFiles(String directoryPath, Collection<String> queries,
+                                               SearchFilter filter) {
+        FileNameMatcher matcher = new FileNameMatcher(queries);
+        File directory = validateDirectory(directoryPath);
+
+        Map<String, List<String>> results = new LinkedHashMap<>();
+        for (String query : matcher.getQueries()) {
+            results.put(query, new ArrayList<>());
+        }
+        try (FileSearchIterator matches = openSearch(directory, matcher::matchesAny, filter)) {
+            while (matches.hasNext()) {
+                Path match = matches.next();
+                String path = match.toString();
+                for (String query : matcher.matchingQueries(match.getFileName().toString())) {
+                    results.get(query).add(path);
+                }
+            }
+            lastStatistics.set(matches.getStatistics());
+        }
+        return results;
+    }
+
+    /**
+     * Finds files with the given name that contain the given text. Files are found by
+     * the same walk as {@link #findFile}, and each match is scanned on a thread pool while
+     * the walk continues.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param text The text the files must contain, encoded as UTF-8
+     * @return List of full paths of matching files, in walk order
+     * @throws IllegalArgumentException if directory path is invalid, or file name or text is empty
+     * @throws UncheckedIOException if a matching file cannot be read
+     */
+    public List<String> findFileContaining(String directoryPath, String fileName, String text) {
+        return findFileContaining(directoryPath, fileName, new ContentMatcher(text), SearchFilter.none());
+    }
+
+    /**
+     * Finds files with the given name, accepted by the filter, whose content matches.
+     * Scans run on a thread pool shared by all finders, with one thread per available
+     * processor.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param content The content to look for, with its per-file byte limit
+     * @param filter Restricts the directories visited and the files scanned
+     * @return List of full paths of matching files, in walk order
+     * @throws IllegalArgumentException if directory path is invalid, file name is empty,
+     *         or content or filter is null
+     * @throws UncheckedIOException if a matching file cannot be read; the remaining scans
+     *         are cancelled
+     * @see #findFileContaining(String, String, String)
+     */
+    public List<String> findFileContaining(String directoryPath, String fileName, ContentMatcher content,
+                                           SearchFilter filter) {
+        File directory = validateSearchRoot(directoryPath, fileName);
+        if (content == null) {
+            throw new IllegalArgumentException("Content matcher cannot be null");
+        }
+
+        ExecutorService pool = ScanExecutorHolder.EXECUTOR;
+        List<Path> candidates = new ArrayList<>();
+        List<Future<Boolean>> scans = new ArrayList<>();
+        try {
+            try (FileSearchIterator matches = openSearch(directory, fileName::equals, filter)) {
+                while (matches.hasNext()) {
+                    Path match = matches.next();
+                    candidates.add(match);
+                    scans.add(pool.submit(() -> content.matches(match)));
+                }
+                lastStatistics.set(matches.getStatistics());
+            }
+
+            List<String> results = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                if (scans.get(i).get()) {
+                    results.add(candidates.get(i).toString());
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning file contents", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (RuntimeException) cause;
+        } finally {
+            // Only does something if the search failed; the pool itself is shared
+            for (Future<Boolean> scan : scans) {
+                scan.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Finds files with identical content under the given directory. The same walk as
+     * {@link #findFile} lists every file; files are then compared by size, by a hash of
+     * their first and last block, and only if still tied by a hash of their whole content,
+     * so most files are never read in full. Hashing runs in parallel. Symbolic links are
+     * skipped, and of several hard links to the same file only the first one found is
+     * compared, since they do not take up space twice.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @return The groups of identical files, with bytes read and skipped
+     * @throws IllegalArgumentException if directory path is invalid
+     */
+    public DuplicateReport findDuplicates(String directoryPath) {
+        return findDuplicates(directoryPath, SearchFilter.none(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Finds files with identical content among the files accepted by the filter.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param filter Restricts the directories visited and the files compared
+     * @param parallelism How many files are hashed at once, at most; hashing runs on the
+     *        pool shared with {@link #findFileContaining}, one thread per processor
+     * @return The groups of identical files, with bytes read and skipped
+     * @throws IllegalArgumentException if directory path is invalid, filter is null or
+     *         parallelism is less than 1
+     * @see #findDuplicates(String)
+     */
+    public DuplicateReport findDuplicates(String directoryPath, SearchFilter filter, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        File directory = validateDirectory(directoryPath);
+
+        Map<Path, Long> sizes = new LinkedHashMap<>();
+        TraversalStatistics statistics;
+        try (FileSearchIterator files = openSearch(directory, name -> true, filter)) {
+            Set<Object> fileKeys = new HashSet<>();
+            while (files.hasNext()) {
+                Path file = files.next();
+                try {
+                    BasicFileAttributes attrs = files.lastAttributes();
+                    if (attrs == null) {
+                        attrs = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    }
+                    // Symbolic links are not regular files here, and hard links share a file key:
+                    // either way the content is stored once and is not duplicated
+                    if (!attrs.isRegularFile() || (attrs.fileKey() != null && !fileKeys.add(attrs.fileKey()))) {
+                        continue;
+                    }
+                    sizes.put(file, attrs.size());
+                } catch (IOException e) {
+                    // Vanished or unreadable since it was listed; it cannot be compared
+                }
+            }
+            statistics = files.getStatistics();
+        }
+        return new DuplicateFileDetector(ScanExecutorHolder.EXECUTOR, parallelism).detect(sizes, statistics);
+    }
+
+    /**
+     * Opens a lazy walk over the given directory using the configured backend.
+     */
+    private FileSearchIterator openSearch(File directory, Predicate<String> nameFilter, SearchFilter filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        return FileSearchIterator.open(directory.toPath().toAbsolutePath(), nameFilter, filter, backend, followLinks,
+            maxOpenDirectories, maxBufferedEntries);
+    }
+
+    /**
+     * Returns the traversal counters of the last search that the calling thread ran to
+     * completion through {@link #findFile} or {@link #findFiles}. Searches on other threads
+     * do not affect the value; use {@link #search} to get the counters with the result.
+     * 
+     * @return Directories listed and pruned, and entries examined
+     */
+    public TraversalStatistics getLastStatistics() {
+        return lastStatistics.get();
+    }
+
+    /**
+     * Returns the number of directory cycles skipped by the last NIO search of the
+     * calling thread that followed symbolic links and ran to completion.
+     * 
+     * @return The number of detected directory cycles
+     */
+    public int getLoopsDetected() {
+        return (int) getLastStatistics().getLoopsDetected();
+    }
+
+    /**
+     * Lazily created executor for {@link #findFileAsync(String, String)}.
+     */
+    private static class AsyncExecutorHolder {
+        static final Executor EXECUTOR = createExecutor();
+
+        private static Executor createExecutor() {
+            try {
+                // Virtual threads do not pin a platform thread while blocked on directory I/O
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "file-finder-async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+
+    /**
+     * Lazily created pool for the content scans of {@link #findFileContaining} and the
+     * hashing of {@link #findDuplicates}. Both block on file reads, so they get their own
+     * threads rather than the common pool;
+     * the threads are daemons, so an idle pool never keeps the JVM alive.
+     */
+    private static class ScanExecutorHolder {
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "file-finder-scan");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Searches for a file in parallel, using one core per available processor.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @return List of full paths where the file was found, in no particular order
+     * @throws IllegalArgumentException if directory path is invalid or file name is empty
+     * @see #findFileParallel(String, String, int)
+     */
+    public List<String> findFileParallel(String directoryPath, String fileName) {
+        return findFileParallel(directoryPath, fileName, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Searches for a file with the specified name by splitting the directory tree into
+     * fork-join tasks, one per subdirectory, so that several directories are listed at once.
+     * The result set is the same as {@link #findFile(String, String)}, but the order of
+     * the paths depends on thread scheduling.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param parallelism The number of worker threads to use
+     * @return List of full paths where the file was found, in no particular order
+     * @throws IllegalArgumentException if directory path is invalid, file name is empty
+     *         or parallelism is not positive
+     */
+    public List<String> findFileParallel(String directoryPath, String fileName, int parallelism) {
+        return findFileParallel(directoryPath, fileName, SearchFilter.none(), parallelism);
+    }
+
+    /**
+     * Searches for a file in parallel, skipping the parts of the tree rejected by the filter.
+     * Directories are listed with the configured backend, and symbolic links are followed
+     * as by {@link #findFile}, so the result set is the same as that of
+     * {@link #findFile(String, String, SearchFilter)}. Every directory is a separate task, so
+     * the handle and buffer limits of a sequential walk do not apply; at most one directory
+     * per worker thread is open at a time.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @param filter Restricts the directories visited and the files reported
+     * @param parallelism The number of worker threads to use
+     * @return List of full paths where the file was found, in no particular order
+     * @throws IllegalArgumentException if directory path is invalid, file name is empty,
+     *         filter is null or parallelism is not positive
+     */
+    public List<String> findFileParallel(String directoryPath, String fileName, SearchFilter filter,
+                                         int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        Path root = validateSearchRoot(directoryPath, fileName).toPath().toAbsolutePath();
+
+        Queue<String> matches = new ConcurrentLinkedQueue<>();
+        ParallelSearch search = new ParallelSearch(this, fileName, filter, matches);
+        Object rootKey = search.fileKey(root);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectorySearchTask(null, search, root, rootKey, 0,
+                filter.getIgnoreFileNames().isEmpty() ? null : "", null));
+        } finally {
+            pool.shutdown();
+        }
+        return new ArrayList<>(matches);
+    }
+
+    /**
+     * Validates the search arguments and resolves the starting directory.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @param fileName The name of the file to search for
+     * @return The starting directory
+     * @throws IllegalArgumentException if directory path is invalid or file name is empty
+     */
+    private File validateSearchRoot(String directoryPath, String fileName) {
         // Input validation
         if (directoryPath == null || directoryPath.trim().isEmpty()) {
             throw new IllegalArgumentException("Directory path cannot be null or empty");
@@ -28,10 +656,21 @@ public class FileFinderRecursive {
         if (fileName == null || fileName.trim().isEmpty()) {
             throw new IllegalArgumentException("File name cannot be null or empty");
         }
+        return validateDirectory(directoryPath);
+    }
+
+    /**
+     * Validates the starting directory of a search.
+     * 
+     * @param directoryPath The starting directory path for the search
+     * @return The starting directory
+     * @throws IllegalArgumentException if directory path is invalid
+     */
+    private File validateDirectory(String directoryPath) {
+        if (directoryPath == null || directoryPath.trim().isEmpty()) {
+            throw new IllegalArgumentException("Directory path cannot be null or empty");
+        }
 
-        // Clear previous results
-        foundPaths.clear();
-        
         // Create File object for the directory
         File directory = new File(directoryPath);
         
@@ -42,52 +681,241 @@ public class FileFinderRecursive {
         if (!directory.isDirectory()) {
             throw new IllegalArgumentException("Path is not a directory: " + directoryPath);
         }
+        return directory;
+    }
 
-        // Start recursive search
-        searchRecursively(directory, fileName);
-        
-        return new ArrayList<>(foundPaths);
+    /**
+     * Settings and results shared by all tasks of one parallel search.
+     */
+    private static class ParallelSearch {
+        final String fileName;
+        final SearchFilter filter;
+        final Backend backend;
+        final boolean followLinks;
+        final LinkOption[] linkOptions;
+        final Queue<String> matches;
+
+        ParallelSearch(FileFinderRecursive finder, String fileName, SearchFilter filter, Queue<String> matches) {
+            this.fileName = fileName;
+            this.filter = filter;
+            this.backend = finder.backend;
+            this.followLinks = finder.followLinks && finder.backend == Backend.NIO;
+            this.linkOptions = followLinks ? new LinkOption[0] : new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+            this.matches = matches;
+        }
+
+        /**
+         * Returns the key identifying a directory in cycle checks, or null if cycles
+         * cannot occur because links are not followed.
+         */
+        Object fileKey(Path directory) {
+            if (!followLinks) {
+                return null;
+            }
+            try {
+                Object key = Files.readAttributes(directory, BasicFileAttributes.class).fileKey();
+                return key != null ? key : directory;
+            } catch (IOException e) {
+                return directory;
+            }
+        }
     }
 
     /**
-     * Recursive helper method to search through directory structure.
-     * 
-     * @param currentDir The current directory being searched
-     * @param fileName The name of the file to search for
+     * Fork-join task that lists one directory, records its matches and forks
+     * a subtask for every subdirectory. Tasks never wait for their subtasks; each one
+     * completes its parent when it finishes, so the thread stack does not grow with
+     * the depth of the tree. The chain of parent tasks is the path from the root, which
+     * is where directory cycles are looked for when links are followed.
      */
-    private void searchRecursively(File currentDir, String fileName) {
-        File[] files = currentDir.listFiles();
-        
-        if (files != null) {
-            for (File file : files) {
-                if (file.isFile() && file.getName().equals(fileName)) {
-                    // Found a matching file, add its path to the results
-                    foundPaths.add(file.getAbsolutePath());
+    private static class DirectorySearchTask extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final ParallelSearch search;
+        private final Path directory;
+        private final Object key;
+        private final int depth;
+        // Path relative to the root, or null when no ignore files are in use
+        private final String relativePath;
+        private final IgnoreRules inherited;
+
+        DirectorySearchTask(DirectorySearchTask parent, ParallelSearch search, Path directory, Object key,
+                            int depth, String relativePath, IgnoreRules inherited) {
+            super(parent);
+            this.search = search;
+            this.directory = directory;
+            this.key = key;
+            this.depth = depth;
+            this.relativePath = relativePath;
+            this.inherited = inherited;
+        }
+
+        @Override
+        public void compute() {
+            if (search.backend == Backend.NIO) {
+                listWithNio();
+            } else {
+                listWithJavaIo();
+            }
+            tryComplete();
+        }
+
+        private void listWithJavaIo() {
+            File dir = directory.toFile();
+            DirectoryListingEvent event = new DirectoryListingEvent();
+            event.begin();
+            long startTime = FileSearchIterator.listingStarted();
+            String[] names = dir.list();
+            FileSearchIterator.listingFinished(event, startTime, directory, names == null ? 0 : names.length,
+                Backend.JAVA_IO);
+            if (names == null) {
+                return;
+            }
+            IgnoreRules rules = readIgnoreRules();
+            boolean readAttributes = search.filter.hasAttributeFilters();
+            for (String name : names) {
+                File file = new File(dir, name);
+                if (file.isFile()) {
+                    visitFile(file.toPath(), name, rules,
+                        readAttributes ? file.length() : 0, readAttributes ? file.lastModified() : 0);
                 } else if (file.isDirectory()) {
-                    // Recursively search subdirectories
-                    searchRecursively(file, fileName);
+                    visitDirectory(file.toPath(), name, rules, null);
+                }
+            }
+        }
+
+        private void listWithNio() {
+            DirectoryListingEvent event = new DirectoryListingEvent();
+            event.begin();
+            long startTime = FileSearchIterator.listingStarted();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+                FileSearchIterator.listingFinished(event, startTime, directory, -1, Backend.NIO);
+                IgnoreRules rules = readIgnoreRules();
+                for (Path entry : stream) {
+                    BasicFileAttributes attrs = readAttributes(entry);
+                    if (attrs == null) {
+                        continue;
+                    }
+                    String name = entry.getFileName().toString();
+                    BasicFileAttributes fileAttrs =
+                        FileSearchIterator.regularFileAttributes(entry, attrs, search.followLinks);
+                    if (fileAttrs != null) {
+                        visitFile(entry, name, rules, fileAttrs.size(), fileAttrs.lastModifiedTime().toMillis());
+                    } else if (attrs.isDirectory()) {
+                        visitDirectory(entry, name, rules, attrs.fileKey());
+                    }
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                // Skip directories that cannot be read, like the sequential walk does
+            }
+        }
+
+        private BasicFileAttributes readAttributes(Path entry) {
+            try {
+                return Files.readAttributes(entry, BasicFileAttributes.class, search.linkOptions);
+            } catch (IOException e) {
+                if (search.followLinks) {
+                    // Broken link: fall back to the attributes of the link itself
+                    try {
+                        return Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException ignored) {
+                        return null;
+                    }
                 }
+                return null;
             }
         }
+
+        private IgnoreRules readIgnoreRules() {
+            return relativePath == null
+                ? null
+                : FileSearchIterator.readIgnoreRules(search.filter, directory, relativePath, inherited);
+        }
+
+        private String childPath(String name) {
+            if (relativePath == null) {
+                return null;
+            }
+            return relativePath.isEmpty() ? name : relativePath + "/" + name;
+        }
+
+        private void visitFile(Path file, String name, IgnoreRules rules, long size, long lastModifiedMillis) {
+            if (!name.equals(search.fileName)
+                    || (rules != null && rules.isIgnored(childPath(name), false))
+                    || (search.filter.hasAttributeFilters()
+                        && !search.filter.acceptsAttributes(size, lastModifiedMillis))) {
+                return;
+            }
+            search.matches.add(file.toString());
+        }
+
+        private void visitDirectory(Path subdirectory, String name, IgnoreRules rules, Object fileKey) {
+            String childPath = childPath(name);
+            if (depth + 1 >= search.filter.getMaxDepth()
+                    || search.filter.isDirectoryExcluded(name)
+                    || (rules != null && rules.isIgnored(childPath, true))) {
+                return;
+            }
+            Object childKey = null;
+            if (search.followLinks) {
+                childKey = fileKey != null ? fileKey : subdirectory;
+                if (isAncestor(subdirectory, childKey)) {
+                    return;
+                }
+            }
+            addToPendingCount(1);
+            new DirectorySearchTask(this, search, subdirectory, childKey, depth + 1, childPath, rules).fork();
+        }
+
+        private boolean isAncestor(Path subdirectory, Object childKey) {
+            for (CountedCompleter<?> task = this; task != null; task = task.getCompleter()) {
+                Object ancestorKey = ((DirectorySearchTask) task).key;
+                if (childKey.equals(ancestorKey)) {
+                    return true;
+                }
+                if (ancestorKey instanceof Path && childKey instanceof Path) {
+                    try {
+                        if (Files.isSameFile(subdirectory, (Path) ancestorKey)) {
+                            return true;
+                        }
+                    } catch (IOException e) {
+                        // Treat directories that cannot be compared as distinct
+                    }
+                }
+            }
+            return false;
+        }
     }
 
     /**
      * Main method to run the file finder from command line.
      * 
-     * @param args Command line arguments: directory path and file name
+     * @param args Command line arguments: directory path, file name and optional backend or index file
      */
     public static void main(String[] args) {
-        if (args.length != 2) {
-            System.out.println("Usage: java FileFinder <directory_path> <file_name>");
+        String option = args.length == 3 ? args[2] : "io";
+        boolean knownOption = option.equalsIgnoreCase("io") || option.equalsIgnoreCase("nio")
+            || option.startsWith("--index=");
+        if ((args.length != 2 && args.length != 3) || !knownOption) {
+            if (!knownOption) {
+                System.out.println("Unknown option: " + option);
+            }
+            System.out.println("Usage: java FileFinder <directory_path> <file_name> [io|nio|--index=<index_file>]");
             System.exit(1);
         }
 
         String directoryPath = args[0];
         String fileName = args[1];
-        FileFinderRecursive finder = new FileFinderRecursive();
 
         try {
-            List<String> foundFiles = finder.findFile(directoryPath, fileName);
+            List<String> foundFiles;
+            if (option.startsWith("--index=")) {
+                Path indexFile = Path.of(option.substring("--index=".length()));
+                foundFiles = new FileFinderRecursive().findFileIndexed(directoryPath, fileName, indexFile);
+            } else {
+                Backend backend = option.equalsIgnoreCase("nio") ? Backend.NIO : Backend.JAVA_IO;
+                foundFiles = new FileFinderRecursive(backend).findFile(directoryPath, fileName);
+            }
             
             if (foundFiles.isEmpty()) {
                 System.out.println("File '" + fileName + "' not found in directory: " + directoryPath);
@@ -97,7 +925,7 @@ public class FileFinderRecursive {
                     System.out.println(path);
                 }
             }
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | IOException e) {
             System.err.println("Error: " + e.getMessage());
             System.exit(1);
         }
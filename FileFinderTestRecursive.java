@@ -7,7 +7,29 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 /**
  * Test class for FileFinder using JUnit 4
@@ -117,6 +139,93 @@ public class FileFinderTestRecursive {
             results.get(0).contains("deep1" + File.separator + "deep2" + File.separator + "deep3"));
     }
 
+    /**
+     * Creates a chain of nested single-letter directories under the root, keeping
+     * the full path below the usual 4096 character limit, with a file at the bottom.
+     * 
+     * @return The number of nesting levels created
+     */
+    private int createDeepChain(String fileName) throws IOException {
+        int levels = Math.min(2000, (4000 - rootDir.getAbsolutePath().length()) / 2);
+        StringBuilder path = new StringBuilder("chain");
+        for (int i = 1; i < levels; i++) {
+            path.append(File.separator).append('d');
+        }
+        File deepest = new File(rootDir, path.toString());
+        assertTrue("Should create the nested directories", deepest.mkdirs());
+        new File(deepest, fileName).createNewFile();
+        return levels;
+    }
+
+    @Test
+    public void testFindFileInThousandsOfNestedDirectories() throws IOException {
+        // One shared tree, since creating and deleting it dominates the run time
+        int levels = createDeepChain("bottom.txt");
+        new File(rootDir, "chain" + File.separator + "side.txt").createNewFile();
+        assertTrue("Test tree should have thousands of levels", levels >= 1000);
+
+        for (FileFinderRecursive.Backend backend : FileFinderRecursive.Backend.values()) {
+            FileFinderRecursive backendFinder = new FileFinderRecursive(backend);
+            SearchResult result = backendFinder.search(rootDir.getAbsolutePath(), "bottom.txt", SearchFilter.none());
+
+            assertEquals("Should find the file at the bottom with " + backend, 1, result.getPaths().size());
+            assertEquals("Should reach the bottom of the chain", levels, result.getStatistics().getMaxDepthReached());
+        }
+
+        FileFinderRecursive limited = new FileFinderRecursive(FileFinderRecursive.Backend.NIO, false, 4);
+        assertEquals("Should find the bottom with few open handles",
+            1, limited.findFile(rootDir.getAbsolutePath(), "bottom.txt").size());
+        assertEquals("Entries read before closing a handle should still be visited",
+            1, limited.findFile(rootDir.getAbsolutePath(), "side.txt").size());
+
+        assertEquals("Parallel search should not overflow the stack",
+            1, finder.findFileParallel(rootDir.getAbsolutePath(), "bottom.txt", 2).size());
+    }
+
+    @Test
+    public void testBufferLimitStillVisitsEveryEntry() throws IOException {
+        // Wide directories at every level, so that ancestors always have entries left to visit
+        File directory = rootDir;
+        int expected = 0;
+        for (int level = 0; level < 5; level++) {
+            for (int i = 0; i < 10; i++) {
+                File sibling = new File(directory, "sibling" + i);
+                sibling.mkdir();
+                new File(sibling, "target.txt").createNewFile();
+                new File(directory, "file" + i + ".txt").createNewFile();
+                expected++;
+            }
+            directory = new File(directory, "level" + level);
+            directory.mkdir();
+        }
+        new File(directory, "target.txt").createNewFile();
+        expected++;
+
+        for (FileFinderRecursive.Backend backend : FileFinderRecursive.Backend.values()) {
+            List<String> unbounded = new ArrayList<>(
+                new FileFinderRecursive(backend).findFile(rootDir.getAbsolutePath(), "target.txt"));
+            assertEquals(expected, unbounded.size());
+            Collections.sort(unbounded);
+            for (int maxBufferedEntries : new int[] {0, 3, 25}) {
+                FileFinderRecursive bounded = new FileFinderRecursive(backend, false, 1, maxBufferedEntries);
+                List<String> found = new ArrayList<>(bounded.findFile(rootDir.getAbsolutePath(), "target.txt"));
+                Collections.sort(found);
+                assertEquals("Every file should be found once with " + backend + " and a buffer of "
+                    + maxBufferedEntries, unbounded, found);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOpenDirectoryLimit() {
+        new FileFinderRecursive(FileFinderRecursive.Backend.NIO, false, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBufferedEntryLimit() {
+        new FileFinderRecursive(FileFinderRecursive.Backend.NIO, false, 1, -1);
+    }
+
     @Test
     public void testSearchWithSpecialCharacters() throws IOException {
         // Create a file with special characters in name
@@ -176,6 +285,295 @@ public class FileFinderTestRecursive {
         assertNotNull("Should return non-null result even with permission error", results);
     }
 
+    @Test
+    public void testParallelSearchMatchesSequential() {
+        List<String> sequential = finder.findFile(rootDir.getAbsolutePath(), "test1.txt");
+        List<String> parallel = finder.findFileParallel(rootDir.getAbsolutePath(), "test1.txt", 4);
+
+        assertEquals("Parallel search should find the same number of files", 
+            sequential.size(), parallel.size());
+        assertEquals("Parallel search should find the same files", 
+            new HashSet<>(sequential), new HashSet<>(parallel));
+    }
+
+    @Test
+    public void testParallelSearchWithSingleThread() {
+        List<String> results = finder.findFileParallel(rootDir.getAbsolutePath(), "test3.txt", 1);
+
+        assertEquals("Should find exactly one file", 1, results.size());
+        assertTrue("File path should contain test3.txt", results.get(0).endsWith("test3.txt"));
+    }
+
+    @Test
+    public void testParallelSearchHonorsFinderAndFilterSettings() throws IOException {
+        Files.write(new File(rootDir, ".gitignore").toPath(), Arrays.asList("subsubdir/"));
+        Files.write(new File(rootDir, "subdir2/test1.txt").toPath(), "content".getBytes());
+        try {
+            Files.createSymbolicLink(new File(rootDir, "subdir1/loop").toPath(), rootDir.toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            // Symbolic links are not supported on this file system; the loop is not exercised
+        }
+        SearchFilter[] filters = {
+            SearchFilter.none(),
+            new SearchFilter().maxDepth(2),
+            new SearchFilter().excludeDirectories("subdir2"),
+            new SearchFilter().useIgnoreFiles(".gitignore"),
+            new SearchFilter().sizeBetween(1, 100)
+        };
+
+        for (FileFinderRecursive.Backend backend : FileFinderRecursive.Backend.values()) {
+            for (boolean followLinks : new boolean[] {false, true}) {
+                FileFinderRecursive configured = new FileFinderRecursive(backend, followLinks, 2);
+                for (SearchFilter filter : filters) {
+                    List<String> sequential = configured.findFile(rootDir.getAbsolutePath(), "test1.txt", filter);
+                    List<String> parallel = configured.findFileParallel(rootDir.getAbsolutePath(), "test1.txt",
+                        filter, 3);
+                    assertEquals("Parallel search should match with " + backend + ", followLinks "
+                        + followLinks + " and " + filter, new HashSet<>(sequential), new HashSet<>(parallel));
+                    assertEquals("No file should be found twice", new HashSet<>(parallel).size(), parallel.size());
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelSearchWithInvalidParallelism() {
+        finder.findFileParallel(rootDir.getAbsolutePath(), "test1.txt", 0);
+    }
+
+    @Test
+    public void testNioBackendMatchesJavaIoBackend() throws IOException {
+        boolean linked = true;
+        try {
+            Files.createSymbolicLink(new File(rootDir, "subdir2/test1.txt").toPath(),
+                new File(rootDir, "test1.txt").toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            linked = false; // Symbolic links are not supported on this file system
+        }
+        FileFinderRecursive nioFinder = new FileFinderRecursive(FileFinderRecursive.Backend.NIO);
+        List<String> ioResults = finder.findFile(rootDir.getAbsolutePath(), "test1.txt");
+        List<String> nioResults = nioFinder.findFile(rootDir.getAbsolutePath(), "test1.txt");
+
+        assertEquals("Links to files should be reported", linked ? 4 : 3, ioResults.size());
+        assertEquals("Both backends should find the same files", 
+            new HashSet<>(ioResults), new HashSet<>(nioResults));
+        assertEquals("Parallel search should find the same files", new HashSet<>(ioResults),
+            new HashSet<>(nioFinder.findFileParallel(rootDir.getAbsolutePath(), "test1.txt", 2)));
+    }
+
+    @Test
+    public void testNioBackendSkipsDirectoryNames() throws IOException {
+        tempFolder.newFolder("subdir2", "test1.txt");
+        FileFinderRecursive nioFinder = new FileFinderRecursive(FileFinderRecursive.Backend.NIO);
+
+        List<String> results = nioFinder.findFile(rootDir.getAbsolutePath(), "test1.txt");
+
+        assertEquals("Directories should not be reported as matches", 3, results.size());
+    }
+
+    @Test
+    public void testNioBackendDetectsSymlinkLoops() throws IOException {
+        File subDir = new File(rootDir, "subdir1");
+        try {
+            Files.createSymbolicLink(new File(subDir, "loop").toPath(), rootDir.toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            return; // Symbolic links are not supported on this file system
+        }
+
+        FileFinderRecursive following = new FileFinderRecursive(FileFinderRecursive.Backend.NIO, true);
+        List<String> results = following.findFile(rootDir.getAbsolutePath(), "test1.txt");
+        assertEquals("Cycle should not produce duplicate matches", 3, results.size());
+        assertEquals("Cycle should be detected once", 1, following.getLoopsDetected());
+
+        FileFinderRecursive notFollowing = new FileFinderRecursive(FileFinderRecursive.Backend.NIO);
+        results = notFollowing.findFile(rootDir.getAbsolutePath(), "test1.txt");
+        assertEquals("Links should not be followed", 3, results.size());
+        assertEquals("No cycle should be reached", 0, notFollowing.getLoopsDetected());
+    }
+
+    @Test
+    public void testStreamMatchesList() {
+        List<String> listResults = finder.findFile(rootDir.getAbsolutePath(), "test1.txt");
+        List<String> streamResults;
+        try (Stream<Path> matches = finder.findFileStream(rootDir.getAbsolutePath(), "test1.txt")) {
+            streamResults = matches.map(Path::toString).collect(Collectors.toList());
+        }
+
+        assertEquals("Stream should yield the same paths in the same order", listResults, streamResults);
+    }
+
+    @Test
+    public void testStreamEarlyTermination() {
+        for (FileFinderRecursive.Backend backend : FileFinderRecursive.Backend.values()) {
+            FileFinderRecursive backendFinder = new FileFinderRecursive(backend);
+            try (Stream<Path> matches = backendFinder.findFileStream(rootDir.getAbsolutePath(), "test1.txt")) {
+                Optional<Path> first = matches.findFirst();
+                assertTrue("Should find a first match with " + backend, first.isPresent());
+                assertTrue("First match should be absolute", first.get().isAbsolute());
+            }
+            try (Stream<Path> matches = backendFinder.findFileStream(rootDir.getAbsolutePath(), "test1.txt")) {
+                assertEquals("Limit should stop after two matches", 2, matches.limit(2).count());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStreamWithEmptyFileName() {
+        finder.findFileStream(rootDir.getAbsolutePath(), "");
+    }
+
+    @Test
+    public void testBatchSearchGroupsResultsByQuery() {
+        Map<String, List<String>> results = finder.findFiles(rootDir.getAbsolutePath(),
+            Arrays.asList("test1.txt", "glob:*.doc", "regex:test[23]\\..*", "glob:test{1,3}.txt", "missing.txt"));
+
+        assertEquals("Should keep the query order", 
+            Arrays.asList("test1.txt", "glob:*.doc", "regex:test[23]\\..*", "glob:test{1,3}.txt", "missing.txt"),
+            Arrays.asList(results.keySet().toArray()));
+        assertEquals(new HashSet<>(finder.findFile(rootDir.getAbsolutePath(), "test1.txt")),
+            new HashSet<>(results.get("test1.txt")));
+        assertEquals(1, results.get("glob:*.doc").size());
+        assertEquals("Regex should match test2.doc and test3.txt", 2, results.get("regex:test[23]\\..*").size());
+        assertEquals("Glob group should match test1.txt and test3.txt", 4, results.get("glob:test{1,3}.txt").size());
+        assertTrue("Missing names should map to an empty list", results.get("missing.txt").isEmpty());
+    }
+
+    @Test
+    public void testFileNameMatcher() {
+        FileNameMatcher matcher = new FileNameMatcher(
+            Arrays.asList("glob:*.txt", "glob:report-??.csv", "glob:[!a-c]*.log", "regex:.*\\.tmp", "Makefile"));
+
+        assertEquals(Arrays.asList("glob:*.txt"), matcher.matchingQueries("notes.txt"));
+        assertEquals(Arrays.asList("glob:report-??.csv"), matcher.matchingQueries("report-01.csv"));
+        assertTrue(matcher.matchingQueries("report-001.csv").isEmpty());
+        assertTrue(matcher.matchesAny("server.log"));
+        assertFalse(matcher.matchesAny("app.log"));
+        assertTrue(matcher.matchesAny("x.tmp"));
+        assertTrue(matcher.matchesAny("Makefile"));
+        assertFalse(matcher.matchesAny("makefile"));
+        assertFalse("Dots in globs are literal", matcher.matchesAny("notesXtxt"));
+    }
+
+    @Test
+    public void testGlobLiteralExtraction() {
+        assertEquals(".txt", FileNameMatcher.longestLiteral("*.txt"));
+        assertEquals("report-", FileNameMatcher.longestLiteral("report-??.csv"));
+        assertEquals("", FileNameMatcher.longestLiteral("*"));
+        assertEquals(".log", FileNameMatcher.longestLiteral("{a,b}*.log"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchSearchWithInvalidRegex() {
+        finder.findFiles(rootDir.getAbsolutePath(), Arrays.asList("regex:("));
+    }
+
+    @Test
+    public void testExcludedDirectoriesAreNeverListed() {
+        for (FileFinderRecursive.Backend backend : FileFinderRecursive.Backend.values()) {
+            FileFinderRecursive backendFinder = new FileFinderRecursive(backend);
+            SearchFilter filter = new SearchFilter().excludeDirectories("subsub*");
+
+            List<String> results = backendFinder.findFile(rootDir.getAbsolutePath(), "test1.txt", filter);
+            TraversalStatistics statistics = backendFinder.getLastStatistics();
+
+            assertEquals("Excluded subtree should not be searched with " + backend, 2, results.size());
+            assertEquals("Should list root, subdir1 and subdir2", 3, statistics.getDirectoriesListed());
+            assertEquals("Should prune subsubdir", 1, statistics.getDirectoriesPruned());
+        }
+    }
+
+    @Test
+    public void testMaxDepth() {
+        assertEquals("Depth 1 should only search the root", 1, 
+            finder.findFile(rootDir.getAbsolutePath(), "test1.txt", new SearchFilter().maxDepth(1)).size());
+        assertEquals("Depth 2 should include the first level of subdirectories", 2, 
+            finder.findFile(rootDir.getAbsolutePath(), "test1.txt", new SearchFilter().maxDepth(2)).size());
+        assertEquals("Depth 3 should include everything", 3, 
+            finder.findFile(rootDir.getAbsolutePath(), "test1.txt", new SearchFilter().maxDepth(3)).size());
+    }
+
+    @Test
+    public void testIgnoreFiles() throws IOException {
+        Files.write(new File(rootDir, ".gitignore").toPath(), 
+            Arrays.asList("# build output", "subsubdir/", "*.txt", "!test1.txt"));
+        Files.write(new File(rootDir, "subdir1/.gitignore").toPath(), Arrays.asList("/test1.txt"));
+        SearchFilter filter = new SearchFilter().useIgnoreFiles(".gitignore");
+
+        for (FileFinderRecursive.Backend backend : FileFinderRecursive.Backend.values()) {
+            FileFinderRecursive backendFinder = new FileFinderRecursive(backend);
+            List<String> results = backendFinder.findFile(rootDir.getAbsolutePath(), "test1.txt", filter);
+            assertEquals("Only the root test1.txt should remain with " + backend, 1, results.size());
+            assertEquals("Ignored directory should be pruned", 
+                1, backendFinder.getLastStatistics().getDirectoriesPruned());
+            assertTrue("*.txt should ignore test3.txt",
+                backendFinder.findFile(rootDir.getAbsolutePath(), "test3.txt", filter).isEmpty());
+        }
+    }
+
+    @Test
+    public void testSizeAndTimeFilters() throws IOException {
+        Files.write(new File(rootDir, "subdir1/test1.txt").toPath(), "content".getBytes());
+
+        List<String> results = finder.findFile(rootDir.getAbsolutePath(), "test1.txt",
+            new SearchFilter().sizeBetween(1, 100));
+        assertEquals("Only the non-empty file should match", 1, results.size());
+        assertEquals(2, finder.getLastStatistics().getFilesFiltered());
+
+        long now = System.currentTimeMillis();
+        assertTrue("No file should be modified in the future", finder.findFile(rootDir.getAbsolutePath(),
+            "test1.txt", new SearchFilter().modifiedBetween(now + 3_600_000, Long.MAX_VALUE)).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxDepth() {
+        new SearchFilter().maxDepth(0);
+    }
+
+    @Test
+    public void testSharedFinderUnderConcurrentCallers() throws Exception {
+        String[] names = {"test1.txt", "test2.doc", "test3.txt", "nonexistent.txt"};
+        int[] expected = {3, 1, 1, 0};
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> checks = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int query = i % names.length;
+                checks.add(pool.submit(() -> {
+                    SearchResult result = finder.search(rootDir.getAbsolutePath(), names[query], SearchFilter.none());
+                    return result.getPaths().size() == expected[query]
+                        && finder.getLastStatistics() == result.getStatistics();
+                }));
+            }
+            for (Future<Boolean> check : checks) {
+                assertTrue("Concurrent searches should not see each other's results", check.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncSearch() throws Exception {
+        CompletableFuture<List<String>> future = finder.findFileAsync(rootDir.getAbsolutePath(), "test1.txt");
+        assertEquals("Async search should find the same files",
+            finder.findFile(rootDir.getAbsolutePath(), "test1.txt"), future.get());
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            SearchResult result = finder.findFileAsync(rootDir.getAbsolutePath(), "test1.txt", 
+                new SearchFilter().maxDepth(1), pool).get();
+            assertEquals(1, result.getPaths().size());
+            assertEquals(1, result.getStatistics().getDirectoriesListed());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAsyncSearchValidatesEagerly() {
+        finder.findFileAsync("/this/directory/does/not/exist", "test.txt");
+    }
+
     @After
     public void tearDown() {
         // Restore permissions for cleanup
@@ -195,4 +593,264 @@ public class FileFinderTestRecursive {
             }
         }
     }
+
+    @Test
+    public void testFindDuplicatesOfSmallFiles() throws IOException {
+        File dir = tempFolder.newFolder("dups");
+        File nested = new File(dir, "nested");
+        assertTrue(nested.mkdir());
+        Files.write(new File(dir, "a.txt").toPath(), "hello".getBytes());
+        Files.write(new File(nested, "b.txt").toPath(), "hello".getBytes());
+        Files.write(new File(dir, "c.txt").toPath(), "world".getBytes());
+        Files.write(new File(dir, "d.txt").toPath(), "a different size".getBytes());
+
+        DuplicateReport report = finder.findDuplicates(dir.getPath());
+        assertEquals(1, report.getGroups().size());
+        assertEquals(Arrays.asList(new File(dir, "a.txt").getAbsolutePath(), new File(nested, "b.txt").getAbsolutePath()),
+            report.getGroups().get(0));
+        assertEquals(4, report.getFilesScanned());
+        // Only the three 5-byte files are read; the file with a unique size is skipped
+        assertEquals(15, report.getBytesRead());
+        assertEquals(16, report.getBytesSkipped());
+        assertEquals(5, report.getDuplicateBytes());
+    }
+
+    @Test
+    public void testFindDuplicatesReadsLargeFilesOnlyWhenEndsMatch() throws IOException {
+        File dir = tempFolder.newFolder("large");
+        int size = 1 << 20;
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        Files.write(new File(dir, "x.bin").toPath(), content);
+        Files.write(new File(dir, "y.bin").toPath(), content);
+        byte[] middleDiffers = content.clone();
+        middleDiffers[size / 2]++;
+        Files.write(new File(dir, "z.bin").toPath(), middleDiffers);
+        byte[] headDiffers = content.clone();
+        headDiffers[0]++;
+        Files.write(new File(dir, "w.bin").toPath(), headDiffers);
+
+        DuplicateReport report = finder.findDuplicates(dir.getPath(), SearchFilter.none(), 2);
+        assertEquals(1, report.getGroups().size());
+        assertEquals(Arrays.asList(new File(dir, "x.bin").getAbsolutePath(), new File(dir, "y.bin").getAbsolutePath()),
+            report.getGroups().get(0));
+        // w.bin is ruled out by its first block and never read in full
+        long sample = 2L * DuplicateFileDetector.SAMPLE_BYTES;
+        assertEquals(size - sample, report.getBytesSkipped());
+        assertEquals(4 * sample + 3L * size, report.getBytesRead());
+        assertEquals(size, report.getDuplicateBytes());
+    }
+
+    @Test
+    public void testFindDuplicatesCountsUnreadableFiles() throws IOException {
+        File dir = tempFolder.newFolder("vanishing");
+        Path a = new File(dir, "a.txt").toPath();
+        Path b = new File(dir, "b.txt").toPath();
+        Files.write(a, "hello".getBytes());
+        Files.write(b, "hello".getBytes());
+        Map<Path, Long> sizes = new LinkedHashMap<>();
+        sizes.put(a, 5L);
+        sizes.put(b, 5L);
+        sizes.put(new File(dir, "deleted.txt").toPath(), 5L); // Listed, then removed before hashing
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        DuplicateReport report;
+        try {
+            report = new DuplicateFileDetector(executor, 2).detect(sizes, new TraversalStatistics());
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, report.getUnreadableFiles());
+        assertEquals(1, report.getGroups().size());
+        assertEquals(2, report.getGroups().get(0).size());
+    }
+
+    @Test
+    public void testFindDuplicatesGroupsEmptyFilesWithoutReading() throws IOException {
+        DuplicateReport report = finder.findDuplicates(rootDir.getPath(), new SearchFilter().maxDepth(1), 1);
+        assertEquals(1, report.getGroups().size());
+        assertEquals(0, report.getBytesRead());
+        assertTrue(report.getGroups().get(0).contains(new File(rootDir, "test1.txt").getAbsolutePath()));
+    }
+
+    @Test
+    public void testFindDuplicatesIgnoresLinksToTheSameFile() throws IOException {
+        File dir = tempFolder.newFolder("links");
+        File nested = new File(dir, "a");
+        assertTrue(nested.mkdir());
+        Path data = new File(nested, "data.bin").toPath();
+        Files.write(data, "shared content".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(new File(dir, "link.bin").toPath(), data);
+        Files.createLink(new File(dir, "hard.bin").toPath(), data);
+
+        FileFinderRecursive[] finders = {
+            new FileFinderRecursive(FileFinderRecursive.Backend.JAVA_IO),
+            new FileFinderRecursive(FileFinderRecursive.Backend.NIO),
+            new FileFinderRecursive(FileFinderRecursive.Backend.NIO, true)
+        };
+        for (FileFinderRecursive linkFinder : finders) {
+            DuplicateReport report = linkFinder.findDuplicates(dir.getPath());
+            assertTrue("Links to one file are not duplicates", report.getGroups().isEmpty());
+            assertEquals(0, report.getDuplicateBytes());
+        }
+
+        Files.write(new File(dir, "copy.bin").toPath(), "shared content".getBytes(StandardCharsets.UTF_8));
+        DuplicateReport report = finder.findDuplicates(dir.getPath());
+        assertEquals("A real copy is a duplicate of one of the links", 1, report.getGroups().size());
+        assertEquals(2, report.getGroups().get(0).size());
+        assertTrue(report.getGroups().get(0).contains(new File(dir, "copy.bin").getAbsolutePath()));
+        assertEquals(14, report.getDuplicateBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindDuplicatesRejectsInvalidParallelism() {
+        finder.findDuplicates(rootDir.getPath(), SearchFilter.none(), 0);
+    }
+
+    @Test
+    public void testFindFileContaining() throws IOException {
+        File logs = tempFolder.newFolder("logs");
+        File nested = new File(logs, "nested");
+        assertTrue(nested.mkdir());
+        Files.write(new File(logs, "app.log").toPath(), "INFO start\nERROR disk full\n".getBytes());
+        Files.write(new File(nested, "app.log").toPath(), "INFO start\nINFO stop\n".getBytes());
+        Files.write(new File(nested, "other.log").toPath(), "ERROR disk full\n".getBytes());
+
+        List<String> results = finder.findFileContaining(logs.getPath(), "app.log", "ERROR");
+        assertEquals(Arrays.asList(new File(logs, "app.log").getAbsolutePath()), results);
+        assertTrue(finder.findFileContaining(logs.getPath(), "app.log", "WARN").isEmpty());
+    }
+
+    @Test
+    public void testContentMatcherStopsAtFirstHitAndHonoursLimit() throws IOException {
+        File file = tempFolder.newFile("big.txt");
+        byte[] content = new byte[100_000];
+        Arrays.fill(content, (byte) 'x');
+        byte[] needle = "needle".getBytes();
+        System.arraycopy(needle, 0, content, 50_000, needle.length);
+        Files.write(file.toPath(), content);
+
+        ContentMatcher matcher = new ContentMatcher("needle");
+        assertTrue(matcher.matches(file.toPath()));
+        assertEquals(50_006, matcher.getBytesScanned());
+
+        ContentMatcher limited = new ContentMatcher("needle").maxBytesPerFile(50_005);
+        assertFalse(limited.matches(file.toPath()));
+        assertEquals(50_005, limited.getBytesScanned());
+        assertTrue(new ContentMatcher("needle").maxBytesPerFile(50_006).matches(file.toPath()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testContentMatcherRejectsPatternLongerThanHalfARegion() {
+        new ContentMatcher(new byte[ContentMatcher.MAX_PATTERN_BYTES + 1]);
+    }
+
+    @Test
+    public void testContentMatcherBoyerMooreHorspool() {
+        ContentMatcher matcher = new ContentMatcher("abcab");
+        assertEquals(5, matcher.indexOf(ByteBuffer.wrap("abcaaabcab".getBytes())));
+        assertEquals(-1, matcher.indexOf(ByteBuffer.wrap("abcaabcaa".getBytes())));
+        assertEquals(0, matcher.indexOf(ByteBuffer.wrap("abcab".getBytes())));
+        assertEquals(-1, matcher.indexOf(ByteBuffer.wrap("abc".getBytes())));
+        // Non-ASCII bytes index the shift table without going negative
+        ContentMatcher unicode = new ContentMatcher("\u00e9t\u00e9");
+        assertEquals(2, unicode.indexOf(ByteBuffer.wrap("l'\u00e9t\u00e9".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void testFindFileContainingReportsUnreadableFiles() {
+        ContentMatcher failing = new ContentMatcher("text") {
+            @Override
+            public boolean matches(Path file) throws IOException {
+                throw new IOException("Cannot read " + file);
+            }
+        };
+        try {
+            finder.findFileContaining(rootDir.getPath(), "test1.txt", failing, SearchFilter.none());
+            fail("A failed scan should not be reported as a non-match");
+        } catch (UncheckedIOException e) {
+            assertTrue(e.getCause().getMessage().startsWith("Cannot read"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFindFileContainingRejectsEmptyText() {
+        finder.findFileContaining(rootDir.getPath(), "test1.txt", "");
+    }
+
+    @Test
+    public void testSearchRecordsMetrics() {
+        Metrics.Counter walks = Metrics.counter("filefinder.walks");
+        Metrics.Counter listed = Metrics.counter("filefinder.directories.listed");
+        Metrics.Histogram listings = Metrics.histogram("filefinder.listing.nanos");
+        for (FileFinderRecursive.Backend backend : FileFinderRecursive.Backend.values()) {
+            long walksBefore = walks.get();
+            long listedBefore = listed.get();
+            long listingsBefore = listings.getCount();
+
+            FileFinderRecursive backendFinder = new FileFinderRecursive(backend);
+            backendFinder.findFile(rootDir.getAbsolutePath(), "test1.txt");
+            long directories = backendFinder.getLastStatistics().getDirectoriesListed();
+
+            assertEquals("One walk should be recorded with " + backend, walksBefore + 1, walks.get());
+            assertEquals("Listed directories should be counted", listedBefore + directories, listed.get());
+            assertEquals("Each listing should be timed", listingsBefore + directories, listings.getCount());
+        }
+    }
+
+    @Test
+    public void testSearchEmitsFlightRecorderEvents() throws IOException {
+        Path dump = tempFolder.newFile("search.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("filefinder.DirectoryListing").withThreshold(Duration.ZERO);
+            recording.enable("filefinder.Search").withThreshold(Duration.ZERO);
+            recording.start();
+            finder.findFile(rootDir.getAbsolutePath(), "test1.txt");
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        long listings = events.stream()
+            .filter(e -> e.getEventType().getName().equals("filefinder.DirectoryListing")).count();
+        List<RecordedEvent> searches = events.stream()
+            .filter(e -> e.getEventType().getName().equals("filefinder.Search")).collect(Collectors.toList());
+        assertEquals("Root, subdir1, subdir2 and subsubdir should be listed", 4, listings);
+        assertEquals("One search event should be committed", 1, searches.size());
+        assertEquals(4, searches.get(0).getLong("directoriesListed"));
+    }
+
+    @Test
+    public void testBudgetedSearchStopsEarly() {
+        for (FileFinderRecursive.Backend backend : FileFinderRecursive.Backend.values()) {
+            FileFinderRecursive backendFinder = new FileFinderRecursive(backend);
+
+            SearchResult limited = backendFinder.search(rootDir.getAbsolutePath(), "test1.txt",
+                SearchFilter.none(), new Budget().maxResults(1));
+            assertEquals("Should keep one result with " + backend, 1, limited.getPaths().size());
+            assertEquals(Budget.StopReason.MAX_RESULTS, limited.getStopReason());
+
+            CancellationToken token = new CancellationToken();
+            token.cancel();
+            SearchResult cancelled = backendFinder.search(rootDir.getAbsolutePath(), "test1.txt",
+                SearchFilter.none(), new Budget().cancellationToken(token));
+            assertTrue("A cancelled search should find nothing", cancelled.getPaths().isEmpty());
+            assertEquals(Budget.StopReason.CANCELLED, cancelled.getStopReason());
+        }
+    }
+
+    @Test
+    public void testBudgetedSearchReportsProgress() {
+        List<Budget.Progress> reports = new ArrayList<>();
+        SearchResult result = finder.search(rootDir.getAbsolutePath(), "test1.txt", SearchFilter.none(),
+            new Budget().timeout(Duration.ofMinutes(1)).onProgress(reports::add, Duration.ZERO));
+
+        assertTrue("The whole tree should be searched", result.isComplete());
+        Budget.Progress last = reports.get(reports.size() - 1);
+        assertEquals(result.getStatistics().getDirectoriesListed(), last.workDone);
+        assertEquals(result.getPaths().size(), last.results);
+        assertEquals(1.0, last.fraction, 0);
+    }
 }
\ No newline at end of file
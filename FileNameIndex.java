@@ -0,0 +1,803 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A persistent index from file names to the directories containing them, for one root.
+ * Repeated searches are answered from the index in O(matches) instead of re-walking the
+ * tree. {@link #refresh()} only relists directories whose modification time changed, so
+ * keeping the index current costs one stat per directory rather than one per entry.
+ * Symbolic links to regular files are indexed like the files themselves, but linked
+ * directories are never entered, as in the NIO walk without link following.
+ */
+public class FileNameIndex {
+    private static final int MAGIC = 0x46464958; // "FFIX"
+    private static final int VERSION = 1;
+
+    private final Path root;
+    // Directory path relative to the root -> its listing, in walk order
+    private Map<String, DirectoryEntry> directories;
+    // File name -> relative paths of the directories containing it
+    private Map<String, List<String>> nameIndex;
+    // Canonical instance of every name in use, so repeated names share one String; entries
+    // are counted and dropped with the last listing using them, so deleted names do not pile up
+    private final Map<String, PooledName> namePool = new HashMap<>();
+
+    private FileNameIndex(Path root, Map<String, DirectoryEntry> directories) {
+        this.root = root;
+        this.directories = directories;
+        for (DirectoryEntry entry : directories.values()) {
+            entry.files.forEach(this::intern);
+            entry.subdirectories.forEach(this::intern);
+        }
+        this.nameIndex = buildNameIndex(directories);
+    }
+
+    /**
+     * Builds a new index by walking the whole tree below the root.
+     *
+     * @param root The directory to index
+     * @return The new index
+     * @throws IllegalArgumentException if root is null or not a directory
+     */
+    public static FileNameIndex build(Path root) {
+        Path absoluteRoot = validateRoot(root);
+        FileNameIndex index = new FileNameIndex(absoluteRoot, new LinkedHashMap<>());
+        index.refresh();
+        return index;
+    }
+
+    /**
+     * Loads an index previously written with {@link #save(Path)}.
+     *
+     * @param indexFile The index file
+     * @return The loaded index; call {@link #refresh()} to bring it up to date
+     * @throws IOException if the file cannot be read, is not an index file, or is truncated
+     *         or corrupt
+     */
+    public static FileNameIndex load(Path indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a file name index: " + indexFile);
+            }
+            Path root;
+            try {
+                root = Path.of(in.readUTF());
+            } catch (InvalidPathException e) {
+                throw new IOException("Corrupt file name index: " + indexFile, e);
+            }
+
+            // Names are stored once and referenced by position
+            String[] names = new String[readCount(in, indexFile)];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = in.readUTF();
+            }
+
+            int directoryCount = readCount(in, indexFile);
+            Map<String, DirectoryEntry> directories = new LinkedHashMap<>();
+            for (int i = 0; i < directoryCount; i++) {
+                String relativePath = in.readUTF();
+                long modifiedTime = in.readLong();
+                List<String> files = readNames(in, names, indexFile);
+                List<String> subdirectories = readNames(in, names, indexFile);
+                directories.put(relativePath, new DirectoryEntry(modifiedTime, files, subdirectories));
+            }
+            return new FileNameIndex(root, directories);
+        }
+    }
+
+    /**
+     * Loads the index for a root from the given file and refreshes it. A new index is built
+     * if the file is missing, unreadable, corrupt or belongs to another root. The file is
+     * only written when the index was rebuilt or the refresh changed it.
+     *
+     * @param root The directory to index
+     * @param indexFile The index file
+     * @return The up-to-date index
+     * @throws IOException if the index cannot be written
+     */
+    public static FileNameIndex open(Path root, Path indexFile) throws IOException {
+        Path absoluteRoot = validateRoot(root);
+        FileNameIndex index = null;
+        if (Files.exists(indexFile)) {
+            try {
+                index = load(indexFile);
+            } catch (IOException e) {
+                // Corrupt or outdated index, rebuild it below
+            }
+        }
+
+        boolean changed;
+        if (index == null || !index.root.equals(absoluteRoot)) {
+            index = build(absoluteRoot);
+            changed = true;
+        } else {
+            int directoryCount = index.getDirectoryCount();
+            changed = index.refresh() > 0 || index.getDirectoryCount() != directoryCount;
+        }
+        if (changed) {
+            index.save(indexFile);
+        }
+        return index;
+    }
+
+    /**
+     * Writes the index in a compact binary format.
+     *
+     * @param indexFile The file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path indexFile) throws IOException {
+        Map<String, Integer> nameIds = new LinkedHashMap<>();
+        for (DirectoryEntry entry : directories.values()) {
+            for (String name : entry.files) {
+                nameIds.putIfAbsent(name, nameIds.size());
+            }
+            for (String name : entry.subdirectories) {
+                nameIds.putIfAbsent(name, nameIds.size());
+            }
+        }
+
+        // Write to a sibling file and move it into place, so that concurrent readers
+        // never see a partially written index
+        Path absoluteFile = indexFile.toAbsolutePath();
+        Path tempFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(root.toString());
+
+            out.writeInt(nameIds.size());
+            for (String name : nameIds.keySet()) {
+                out.writeUTF(name);
+            }
+
+            out.writeInt(directories.size());
+            for (Map.Entry<String, DirectoryEntry> directory : directories.entrySet()) {
+                DirectoryEntry entry = directory.getValue();
+                out.writeUTF(directory.getKey());
+                out.writeLong(entry.modifiedTime);
+                writeNames(out, entry.files, nameIds);
+                writeNames(out, entry.subdirectories, nameIds);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Brings the index up to date with the file system. Every indexed directory is
+     * stat'ed, but only those whose modification time changed are listed again;
+     * unchanged directories reuse their stored listing.
+     *
+     * @return The number of directories that were listed
+     */
+    public int refresh() {
+        return applyTree(readTree());
+    }
+
+    /**
+     * Does the file system work of {@link #refresh()} without changing what lookups see:
+     * every indexed directory is stat'ed and those whose modification time changed are
+     * listed again. Pass the result to {@link #applyTree(TreeListing)}. May run alongside
+     * lookups, but not alongside anything else that changes the index.
+     *
+     * @return The new state of the tree
+     */
+    TreeListing readTree() {
+        Map<String, DirectoryEntry> current = new LinkedHashMap<>();
+        int listed = 0;
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push("");
+        while (!pending.isEmpty()) {
+            String relativePath = pending.pop();
+            Path directory = resolve(relativePath);
+            long modifiedTime;
+            try {
+                modifiedTime = readModifiedTime(directory);
+            } catch (IOException e) {
+                continue; // Directory was removed or cannot be read
+            }
+
+            DirectoryEntry entry = directories.get(relativePath);
+            if (entry == null || entry.modifiedTime != modifiedTime) {
+                entry = listDirectory(directory, modifiedTime);
+                listed++;
+            }
+            current.put(relativePath, entry);
+            pushChildren(pending, relativePath, entry);
+        }
+        return new TreeListing(current, buildNameIndex(current), listed);
+    }
+
+    /**
+     * Replaces the indexed tree with one read by {@link #readTree()}, which must not have
+     * been applied before.
+     *
+     * @param tree The new state of the tree
+     * @return The number of directories that were listed
+     */
+    int applyTree(TreeListing tree) {
+        for (Map.Entry<String, DirectoryEntry> entry : directories.entrySet()) {
+            if (tree.directories.get(entry.getKey()) != entry.getValue()) {
+                release(entry.getValue()); // Relisted or removed
+            }
+        }
+        directories = tree.directories;
+        nameIndex = tree.nameIndex;
+        return tree.listed;
+    }
+
+    /**
+     * Pushes the subdirectories of an entry in reverse, so that they are popped in listing
+     * order and directories keep the pre-order of a recursive walk.
+     */
+    private static void pushChildren(Deque<String> pending, String relativePath, DirectoryEntry entry) {
+        for (int i = entry.subdirectories.size() - 1; i >= 0; i--) {
+            pending.push(childPath(relativePath, entry.subdirectories.get(i)));
+        }
+    }
+
+    private DirectoryEntry listDirectory(Path directory, long modifiedTime) {
+        List<String> files = new ArrayList<>();
+        List<String> subdirectories = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path entry : stream) {
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    continue; // Removed while listing
+                }
+                if (FileSearchIterator.regularFileAttributes(entry, attrs, false) != null) {
+                    files.add(intern(entry.getFileName().toString()));
+                } else if (attrs.isDirectory()) {
+                    subdirectories.add(intern(entry.getFileName().toString()));
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            // Index whatever could be listed; unreadable directories stay empty
+        }
+        return new DirectoryEntry(modifiedTime, files, subdirectories);
+    }
+
+    /**
+     * Relists only the given directories, e.g. those reported by a file system watcher.
+     * New subdirectories are indexed in full and removed ones are dropped together with
+     * their subtrees. Directories that are not in the index are ignored.
+     *
+     * @param relativePaths Directories to relist, relative to the root
+     * @return Absolute paths of the directories that were added to the index
+     */
+    public List<Path> refreshDirectories(Collection<String> relativePaths) {
+        return applyDirectories(readDirectories(relativePaths));
+    }
+
+    /**
+     * Does the file system work of {@link #refreshDirectories(Collection)} without changing
+     * what lookups see. Pass the result to {@link #applyDirectories(List)}. May run alongside
+     * lookups, but not alongside anything else that changes the index.
+     *
+     * @param relativePaths Directories to relist, relative to the root
+     * @return The listings, in the order they must be applied
+     */
+    List<DirectoryListing> readDirectories(Collection<String> relativePaths) {
+        List<DirectoryListing> listings = new ArrayList<>();
+        for (String relativePath : relativePaths) {
+            DirectoryEntry previous = directories.get(relativePath);
+            if (previous == null) {
+                continue; // Not indexed
+            }
+
+            Path directory = resolve(relativePath);
+            long modifiedTime;
+            try {
+                modifiedTime = readModifiedTime(directory);
+            } catch (IOException e) {
+                listings.add(new DirectoryListing(relativePath, null, false));
+                continue;
+            }
+
+            DirectoryEntry current = listDirectory(directory, modifiedTime);
+            listings.add(new DirectoryListing(relativePath, current, false));
+            for (String subdirectory : current.subdirectories) {
+                if (!previous.subdirectories.contains(subdirectory)) {
+                    readSubtree(childPath(relativePath, subdirectory), listings);
+                }
+            }
+        }
+        return listings;
+    }
+
+    /**
+     * Lists a directory that is new to the index, and everything below it.
+     */
+    private void readSubtree(String subtreePath, List<DirectoryListing> listings) {
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(subtreePath);
+        while (!pending.isEmpty()) {
+            String relativePath = pending.pop();
+            Path directory = resolve(relativePath);
+            long modifiedTime;
+            try {
+                modifiedTime = readModifiedTime(directory);
+            } catch (IOException e) {
+                continue; // Removed again before it could be listed
+            }
+
+            DirectoryEntry entry = listDirectory(directory, modifiedTime);
+            listings.add(new DirectoryListing(relativePath, entry, true));
+            pushChildren(pending, relativePath, entry);
+        }
+    }
+
+    /**
+     * Applies listings read by {@link #readDirectories(Collection)}, which must not have
+     * been applied before.
+     *
+     * @param listings The listings to apply
+     * @return Absolute paths of the directories that were added to the index
+     */
+    List<Path> applyDirectories(List<DirectoryListing> listings) {
+        List<Path> added = new ArrayList<>();
+        for (DirectoryListing listing : listings) {
+            String relativePath = listing.relativePath;
+            DirectoryEntry previous = directories.get(relativePath);
+            boolean dropped = listing.added
+                ? !directories.containsKey(parentPath(relativePath))
+                : previous == null;
+            if (dropped) {
+                // Removed with a parent earlier in the batch
+                if (listing.entry != null) {
+                    release(listing.entry);
+                }
+                continue;
+            }
+            if (listing.entry == null) {
+                removeSubtree(relativePath);
+                continue;
+            }
+
+            if (previous != null) {
+                for (String subdirectory : previous.subdirectories) {
+                    if (!listing.entry.subdirectories.contains(subdirectory)) {
+                        removeSubtree(childPath(relativePath, subdirectory));
+                    }
+                }
+            }
+            putDirectory(relativePath, listing.entry);
+            if (listing.added) {
+                added.add(resolve(relativePath));
+            }
+        }
+        return added;
+    }
+
+    private void removeSubtree(String subtreePath) {
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(subtreePath);
+        while (!pending.isEmpty()) {
+            String relativePath = pending.pop();
+            DirectoryEntry entry = directories.remove(relativePath);
+            if (entry == null) {
+                continue;
+            }
+            unindexFiles(relativePath, entry);
+            release(entry);
+            pushChildren(pending, relativePath, entry);
+        }
+    }
+
+    private void putDirectory(String relativePath, DirectoryEntry entry) {
+        DirectoryEntry previous = directories.put(relativePath, entry);
+        if (previous != null) {
+            unindexFiles(relativePath, previous);
+            release(previous);
+        }
+        for (String name : entry.files) {
+            nameIndex.computeIfAbsent(name, key -> new ArrayList<>(1)).add(relativePath);
+        }
+    }
+
+    private void unindexFiles(String relativePath, DirectoryEntry entry) {
+        for (String name : entry.files) {
+            List<String> directoriesWithName = nameIndex.get(name);
+            if (directoriesWithName != null) {
+                directoriesWithName.remove(relativePath);
+                if (directoriesWithName.isEmpty()) {
+                    nameIndex.remove(name);
+                }
+            }
+        }
+    }
+
+    private String intern(String name) {
+        PooledName pooled = namePool.computeIfAbsent(name, PooledName::new);
+        pooled.references++;
+        return pooled.name;
+    }
+
+    /**
+     * Drops the pool references held by a listing that left the index.
+     */
+    private void release(DirectoryEntry entry) {
+        entry.files.forEach(this::release);
+        entry.subdirectories.forEach(this::release);
+    }
+
+    private void release(String name) {
+        PooledName pooled = namePool.get(name);
+        if (pooled != null && --pooled.references == 0) {
+            namePool.remove(name);
+        }
+    }
+
+    /**
+     * Returns the number of distinct names held by the name pool.
+     */
+    int getPooledNameCount() {
+        return namePool.size();
+    }
+
+    private static String childPath(String relativePath, String name) {
+        return relativePath.isEmpty() ? name : relativePath + "/" + name;
+    }
+
+    private static String parentPath(String relativePath) {
+        int separator = relativePath.lastIndexOf('/');
+        return separator < 0 ? "" : relativePath.substring(0, separator);
+    }
+
+    /**
+     * Returns the relative path of a directory below the root, as used by
+     * {@link #refreshDirectories(Collection)}.
+     *
+     * @param directory A directory below the root
+     * @return The path relative to the root, using '/' as separator
+     */
+    public String relativize(Path directory) {
+        Path relative = root.relativize(directory.toAbsolutePath());
+        StringBuilder result = new StringBuilder();
+        for (Path part : relative) {
+            if (part.toString().isEmpty()) {
+                continue;
+            }
+            if (result.length() > 0) {
+                result.append('/');
+            }
+            result.append(part);
+        }
+        return result.toString();
+    }
+
+    private Path resolve(String relativePath) {
+        return relativePath.isEmpty() ? root : root.resolve(relativePath);
+    }
+
+    /**
+     * Returns the full paths of all indexed files with the given name.
+     *
+     * @param fileName The name of the file to search for
+     * @return List of full paths where the file was found
+     * @throws IllegalArgumentException if file name is null or empty
+     */
+    public List<String> lookup(String fileName) {
+        if (fileName == null || fileName.trim().isEmpty()) {
+            throw new IllegalArgumentException("File name cannot be null or empty");
+        }
+
+        List<String> directoriesWithName = nameIndex.getOrDefault(fileName, Collections.emptyList());
+        List<String> paths = new ArrayList<>(directoriesWithName.size());
+        for (String relativePath : directoriesWithName) {
+            paths.add(resolve(relativePath).resolve(fileName).toString());
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the absolute root directory of this index.
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the absolute paths of all indexed directories, including the root.
+     */
+    public List<Path> getDirectories() {
+        List<Path> paths = new ArrayList<>(directories.size());
+        for (String relativePath : directories.keySet()) {
+            paths.add(resolve(relativePath));
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the number of indexed directories, including the root.
+     */
+    public int getDirectoryCount() {
+        return directories.size();
+    }
+
+    private static Map<String, List<String>> buildNameIndex(Map<String, DirectoryEntry> directories) {
+        Map<String, List<String>> index = new HashMap<>();
+        for (Map.Entry<String, DirectoryEntry> directory : directories.entrySet()) {
+            for (String name : directory.getValue().files) {
+                index.computeIfAbsent(name, key -> new ArrayList<>(1)).add(directory.getKey());
+            }
+        }
+        return index;
+    }
+
+    private static long readModifiedTime(Path directory) throws IOException {
+        return Files.readAttributes(directory, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS)
+            .lastModifiedTime().to(TimeUnit.MICROSECONDS);
+    }
+
+    private static Path validateRoot(Path root) {
+        if (root == null) {
+            throw new IllegalArgumentException("Directory path cannot be null");
+        }
+        if (!Files.isDirectory(root)) {
+            throw new IllegalArgumentException("Path is not a directory: " + root);
+        }
+        return root.toAbsolutePath();
+    }
+
+    private static void writeNames(DataOutputStream out, List<String> names, Map<String, Integer> nameIds)
+            throws IOException {
+        out.writeInt(names.size());
+        for (String name : names) {
+            out.writeInt(nameIds.get(name));
+        }
+    }
+
+    private static List<String> readNames(DataInputStream in, String[] names, Path indexFile) throws IOException {
+        int count = readCount(in, indexFile);
+        List<String> result = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            int id = in.readInt();
+            if (id < 0 || id >= names.length) {
+                throw new IOException("Corrupt file name index: " + indexFile);
+            }
+            result.add(names[id]);
+        }
+        return result;
+    }
+
+    /**
+     * Reads an element count. Every element takes at least one byte, so a count that is
+     * negative or larger than the file can only come from a corrupt file.
+     */
+    private static int readCount(DataInputStream in, Path indexFile) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > Files.size(indexFile)) {
+            throw new IOException("Corrupt file name index: " + indexFile);
+        }
+        return count;
+    }
+
+    /**
+     * A canonical name and the number of listing slots that use it.
+     */
+    private static class PooledName {
+        final String name;
+        int references;
+
+        PooledName(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Stored listing of a single directory.
+     */
+    private static class DirectoryEntry {
+        final long modifiedTime;
+        final List<String> files;
+        final List<String> subdirectories;
+
+        DirectoryEntry(long modifiedTime, List<String> files, List<String> subdirectories) {
+            this.modifiedTime = modifiedTime;
+            this.files = files;
+            this.subdirectories = subdirectories;
+        }
+    }
+
+    /**
+     * A whole tree read by {@link #readTree()}, with its name index.
+     */
+    static class TreeListing {
+        private final Map<String, DirectoryEntry> directories;
+        private final Map<String, List<String>> nameIndex;
+        private final int listed;
+
+        private TreeListing(Map<String, DirectoryEntry> directories, Map<String, List<String>> nameIndex,
+                            int listed) {
+            this.directories = directories;
+            this.nameIndex = nameIndex;
+            this.listed = listed;
+        }
+    }
+
+    /**
+     * One directory read by {@link #readDirectories(Collection)}.
+     */
+    static class DirectoryListing {
+        private final String relativePath;
+        // Null if the directory is gone
+        private final DirectoryEntry entry;
+        // Whether the directory is new to the index
+        private final boolean added;
+
+        private DirectoryListing(String relativePath, DirectoryEntry entry, boolean added) {
+            this.relativePath = relativePath;
+            this.entry = entry;
+            this.added = added;
+        }
+    }
+
+    /**
+     * Marks the directories of a subtree as changed, so that the next {@link #refresh()}
+     * lists them again as if their modification times had changed on disk.
+     *
+     * @return The number of directories marked
+     */
+    private int invalidateSubtree(String subtreePath) {
+        int marked = 0;
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(subtreePath);
+        while (!pending.isEmpty()) {
+            String relativePath = pending.pop();
+            DirectoryEntry entry = directories.get(relativePath);
+            if (entry == null) {
+                continue;
+            }
+            // Shares the pooled names of the entry it replaces, so reference counts are unchanged
+            directories.put(relativePath, new DirectoryEntry(Long.MIN_VALUE, entry.files, entry.subdirectories));
+            marked++;
+            pushChildren(pending, relativePath, entry);
+        }
+        return marked;
+    }
+
+    /**
+     * Compares a cold walk, loading the persisted index, a lookup in it and an incremental
+     * refresh. For the refresh, the first subdirectory of the root (or the root itself if it
+     * has none) is treated as changed, so that its subtree is listed again as after a real
+     * change, without modifying the tree being measured.
+     *
+     * @param root The directory to search
+     * @param fileName The name of the file to search for
+     * @param indexFile The file used to persist the index
+     * @return PerformanceResult containing timing information
+     * @throws IOException if the index cannot be written or read
+     */
+    public static PerformanceResult analyzePerformance(Path root, String fileName, Path indexFile)
+            throws IOException {
+        long startTime, endTime;
+
+        // Cold walk without an index
+        startTime = System.nanoTime();
+        List<String> walked = new FileFinderRecursive(FileFinderRecursive.Backend.NIO)
+            .findFile(root.toString(), fileName);
+        endTime = System.nanoTime();
+        long walkTime = endTime - startTime;
+
+        build(root).save(indexFile);
+
+        // Load the persisted index
+        startTime = System.nanoTime();
+        FileNameIndex index = load(indexFile);
+        endTime = System.nanoTime();
+        long loadTime = endTime - startTime;
+
+        // Warm lookup in the loaded index
+        startTime = System.nanoTime();
+        List<String> found = index.lookup(fileName);
+        endTime = System.nanoTime();
+        long lookupTime = endTime - startTime;
+
+        // Incremental refresh after one subtree changed
+        DirectoryEntry rootEntry = index.directories.get("");
+        index.invalidateSubtree(rootEntry == null || rootEntry.subdirectories.isEmpty()
+            ? "" : rootEntry.subdirectories.get(0));
+        startTime = System.nanoTime();
+        int listed = index.refresh();
+        endTime = System.nanoTime();
+        long refreshTime = endTime - startTime;
+
+        return new PerformanceResult(
+            walked.size(),
+            found.size(),
+            index.getDirectoryCount(),
+            listed,
+            walkTime / 1_000_000.0, // Convert to milliseconds
+            loadTime / 1_000_000.0,
+            lookupTime / 1_000_000.0,
+            refreshTime / 1_000_000.0
+        );
+    }
+
+    /**
+     * Inner class to hold index performance analysis results.
+     */
+    public static class PerformanceResult {
+        public final int walkMatches;
+        public final int indexMatches;
+        public final int directoryCount;
+        public final int directoriesRelisted;
+        public final double coldWalkTime;
+        public final double indexLoadTime;
+        public final double indexLookupTime;
+        public final double refreshTime;
+
+        public PerformanceResult(int walkMatches, int indexMatches, int directoryCount, int directoriesRelisted,
+                                 double coldWalkTime, double indexLoadTime, double indexLookupTime,
+                                 double refreshTime) {
+            this.walkMatches = walkMatches;
+            this.indexMatches = indexMatches;
+            this.directoryCount = directoryCount;
+            this.directoriesRelisted = directoriesRelisted;
+            this.coldWalkTime = coldWalkTime;
+            this.indexLoadTime = indexLoadTime;
+            this.indexLookupTime = indexLookupTime;
+            this.refreshTime = refreshTime;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "Found %d matches by walking, %d from the index (%d directories)\n"
+                    + "Cold walk: %.2f ms\nIndex load: %.2f ms\nWarm index lookup: %.2f ms\n"
+                    + "Incremental refresh: %.2f ms (%d directories relisted)",
+                walkMatches, indexMatches, directoryCount,
+                coldWalkTime, indexLoadTime, indexLookupTime, refreshTime, directoriesRelisted
+            );
+        }
+    }
+
+    /**
+     * Main method to benchmark the index from the command line.
+     *
+     * @param args Command line arguments: directory path, file name and index file
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println("Usage: java FileNameIndex <directory_path> <file_name> <index_file>");
+            System.exit(1);
+        }
+
+        try {
+            System.out.println(analyzePerformance(Path.of(args[0]), args[1], Path.of(args[2])));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
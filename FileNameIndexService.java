@@ -0,0 +1,236 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps an in-memory {@link FileNameIndex} current for a long-running process.
+ * Every indexed directory is registered with a {@link WatchService}; change events are
+ * collected into batches and applied once the tree has been quiet for the debounce
+ * interval, so lookups are always answered from the index and never trigger a rescan.
+ * Only the directories named by events are relisted. If the watcher overflows, or a
+ * batch grows beyond {@link #MAX_PENDING_DIRECTORIES}, the index falls back to a
+ * modification-time refresh of the whole tree, so a batch never holds more than that many
+ * directory paths; the index itself still grows with the tree. Directories are listed
+ * without holding the index lock, which is only taken to swap the new listings in.
+ */
+public class FileNameIndexService implements Closeable {
+    /** Pending directories above which a batch is replaced by a full refresh. */
+    public static final int MAX_PENDING_DIRECTORIES = 10_000;
+    /** A batch is applied at the latest after this many debounce intervals. */
+    private static final int MAX_BATCH_DELAY_FACTOR = 10;
+
+    private final FileNameIndex index;
+    private final WatchService watchService;
+    private final long debounceMillis;
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong eventsProcessed = new AtomicLong();
+    private final AtomicLong eventsDropped = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong batchesApplied = new AtomicLong();
+    private Thread watcher;
+
+    /**
+     * Indexes the tree below the root and registers every directory for change events.
+     * Call {@link #start()} to begin applying changes.
+     *
+     * @param root The directory to index
+     * @param debounceMillis How long the tree must be quiet before a batch is applied
+     * @throws IllegalArgumentException if root is not a directory or debounce is negative
+     * @throws IOException if the watch service cannot be created
+     */
+    public FileNameIndexService(Path root, long debounceMillis) throws IOException {
+        if (debounceMillis < 0) {
+            throw new IllegalArgumentException("Debounce interval cannot be negative: " + debounceMillis);
+        }
+        this.index = FileNameIndex.build(root);
+        this.debounceMillis = debounceMillis;
+        this.watchService = index.getRoot().getFileSystem().newWatchService();
+        registerAll(index.getDirectories());
+    }
+
+    /**
+     * Starts the background thread that applies change events to the index.
+     */
+    public synchronized void start() {
+        if (watcher != null) {
+            throw new IllegalStateException("Service already started");
+        }
+        watcher = new Thread(this::watchLoop, "file-name-index-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Returns the full paths of all files with the given name, answered from the index.
+     *
+     * @param fileName The name of the file to search for
+     * @return List of full paths where the file was found
+     * @throws IllegalArgumentException if file name is null or empty
+     */
+    public List<String> lookup(String fileName) {
+        lock.readLock().lock();
+        try {
+            return index.lookup(fileName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Returns the number of change events applied to the index. */
+    public long getEventsProcessed() {
+        return eventsProcessed.get();
+    }
+
+    /** Returns the number of events ignored because their directory was no longer watched. */
+    public long getEventsDropped() {
+        return eventsDropped.get();
+    }
+
+    /** Returns the number of overflows, each of which forced a full refresh. */
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    /** Returns the number of batches applied to the index. */
+    public long getBatchesApplied() {
+        return batchesApplied.get();
+    }
+
+    /** Returns the number of directories currently registered with the watch service. */
+    public int getWatchedDirectoryCount() {
+        return watchedDirectories.size();
+    }
+
+    private void watchLoop() {
+        Set<String> pending = new LinkedHashSet<>();
+        boolean overflowed = false;
+        long batchStart = 0;
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key;
+                if (pending.isEmpty() && !overflowed) {
+                    key = watchService.take();
+                    batchStart = System.currentTimeMillis();
+                } else {
+                    long deadline = batchStart + debounceMillis * MAX_BATCH_DELAY_FACTOR;
+                    long wait = Math.min(debounceMillis, deadline - System.currentTimeMillis());
+                    key = wait > 0 ? watchService.poll(wait, TimeUnit.MILLISECONDS) : null;
+                }
+
+                if (key == null) {
+                    // Quiet for the debounce interval, or the batch is overdue
+                    List<Path> added = applyBatch(pending, overflowed);
+                    pending.clear();
+                    overflowed = false;
+                    if (added != null && added.size() > MAX_PENDING_DIRECTORIES) {
+                        overflowed = true;
+                        batchStart = System.currentTimeMillis();
+                    } else if (added != null) {
+                        // Relist new directories once more to catch entries created
+                        // between listing them and registering them
+                        for (Path directory : added) {
+                            pending.add(index.relativize(directory));
+                        }
+                        batchStart = System.currentTimeMillis();
+                    }
+                    continue;
+                }
+
+                Path directory = watchedDirectories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflows.incrementAndGet();
+                        overflowed = true;
+                    } else if (directory == null) {
+                        eventsDropped.incrementAndGet();
+                    } else {
+                        eventsProcessed.incrementAndGet();
+                        pending.add(index.relativize(directory));
+                    }
+                }
+                if (pending.size() > MAX_PENDING_DIRECTORIES) {
+                    pending.clear();
+                    overflowed = true;
+                }
+                if (!key.reset()) {
+                    // Directory was deleted; the batch drops it from the index
+                    watchedDirectories.remove(key);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Service was closed
+        }
+    }
+
+    /**
+     * Applies a batch of changed directories to the index.
+     *
+     * @return The directories that were newly registered, or {@code null} after a full refresh
+     */
+    private List<Path> applyBatch(Set<String> pending, boolean fullRefresh) {
+        // This thread is the only one changing the index, so it can read the file system
+        // and the index without the lock; lookups only wait while the results are swapped in
+        List<Path> added;
+        if (fullRefresh) {
+            FileNameIndex.TreeListing tree = index.readTree();
+            lock.writeLock().lock();
+            try {
+                index.applyTree(tree);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            added = index.getDirectories();
+        } else {
+            List<FileNameIndex.DirectoryListing> listings = index.readDirectories(pending);
+            lock.writeLock().lock();
+            try {
+                added = index.applyDirectories(listings);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        // Registering an already watched directory returns its existing key
+        registerAll(added);
+        batchesApplied.incrementAndGet();
+        return fullRefresh ? null : added;
+    }
+
+    private void registerAll(List<Path> directories) {
+        for (Path directory : directories) {
+            try {
+                WatchKey key = directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(key, directory);
+            } catch (IOException | ClosedWatchServiceException e) {
+                // Directory vanished before it could be watched; its parent's event covers it
+            }
+        }
+    }
+
+    /**
+     * Stops the background thread and releases the watch service.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        watchService.close();
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Test class for FileNameIndex using JUnit 4
+ * Tests building, persisting and incrementally refreshing the index.
+ */
+public class FileNameIndexTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File rootDir;
+    private File subDir1;
+
+    @Before
+    public void setUp() throws IOException {
+        rootDir = tempFolder.newFolder("root");
+        subDir1 = new File(rootDir, "subdir1");
+        File subSubDir = new File(subDir1, "subsubdir");
+        subSubDir.mkdirs();
+        new File(rootDir, "subdir2").mkdir();
+
+        new File(rootDir, "test1.txt").createNewFile();
+        new File(subDir1, "test1.txt").createNewFile();
+        new File(subSubDir, "test1.txt").createNewFile();
+        new File(rootDir, "subdir2/test3.txt").createNewFile();
+    }
+
+    /**
+     * Moves the modification time of a directory forward so that a refresh
+     * notices the change even on file systems with coarse timestamps.
+     */
+    private void touch(File directory) throws IOException {
+        Path path = directory.toPath();
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        Files.setLastModifiedTime(path, FileTime.fromMillis(modified + 10_000));
+    }
+
+    @Test
+    public void testLookupMatchesWalk() {
+        FileNameIndex index = FileNameIndex.build(rootDir.toPath());
+        List<String> walked = new FileFinderRecursive().findFile(rootDir.getAbsolutePath(), "test1.txt");
+
+        assertEquals("Index should find the same files as a walk",
+            new HashSet<>(walked), new HashSet<>(index.lookup("test1.txt")));
+        assertEquals("Should index every directory", 4, index.getDirectoryCount());
+        assertTrue("Unknown names should have no matches", index.lookup("missing.txt").isEmpty());
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Path indexFile = tempFolder.newFile("names.idx").toPath();
+        FileNameIndex original = FileNameIndex.build(rootDir.toPath());
+        original.save(indexFile);
+
+        FileNameIndex loaded = FileNameIndex.load(indexFile);
+
+        assertEquals(original.getRoot(), loaded.getRoot());
+        assertEquals(original.getDirectoryCount(), loaded.getDirectoryCount());
+        assertEquals(original.lookup("test1.txt"), loaded.lookup("test1.txt"));
+        assertEquals(original.lookup("test3.txt"), loaded.lookup("test3.txt"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadRejectsOtherFiles() throws IOException {
+        Path notAnIndex = tempFolder.newFile("other.bin").toPath();
+        Files.write(notAnIndex, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        FileNameIndex.load(notAnIndex);
+    }
+
+    @Test
+    public void testOpenRebuildsTruncatedAndCorruptIndexes() throws IOException {
+        Path indexFile = tempFolder.newFile("names.idx").toPath();
+        FileNameIndex.build(rootDir.toPath()).save(indexFile);
+        byte[] saved = Files.readAllBytes(indexFile);
+
+        Files.write(indexFile, Arrays.copyOf(saved, saved.length / 2));
+        assertEquals("A truncated index should be rebuilt", 3, FileNameIndex.open(rootDir.toPath(), indexFile)
+            .lookup("test1.txt").size());
+
+        byte[] corrupt = saved.clone();
+        // Overwrite the last name id with one that is out of range
+        corrupt[corrupt.length - 1] = 0x7f;
+        Files.write(indexFile, corrupt);
+        try {
+            FileNameIndex.load(indexFile);
+            fail("An out-of-range name id should be rejected");
+        } catch (IOException expected) {
+            // Reported as an unreadable index
+        }
+        assertEquals(3, FileNameIndex.open(rootDir.toPath(), indexFile).lookup("test1.txt").size());
+    }
+
+    @Test
+    public void testOpenOnlySavesChangedIndexes() throws IOException {
+        Path indexFile = tempFolder.newFile("names.idx").toPath();
+        FileNameIndex.open(rootDir.toPath(), indexFile);
+        FileTime written = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(indexFile, written);
+
+        FileNameIndex.open(rootDir.toPath(), indexFile);
+        assertEquals("An unchanged index should not be rewritten", written, Files.getLastModifiedTime(indexFile));
+
+        new File(subDir1, "added.txt").createNewFile();
+        touch(subDir1);
+        FileNameIndex.open(rootDir.toPath(), indexFile);
+        assertNotEquals("A refreshed index should be saved", written, Files.getLastModifiedTime(indexFile));
+    }
+
+    @Test
+    public void testRefreshOnlyRelistsChangedDirectories() throws IOException {
+        FileNameIndex index = FileNameIndex.build(rootDir.toPath());
+        assertEquals("Unchanged tree should not be relisted", 0, index.refresh());
+
+        new File(subDir1, "added.txt").createNewFile();
+        touch(subDir1);
+
+        assertEquals("Only the changed directory should be relisted", 1, index.refresh());
+        assertEquals("New file should be found", 1, index.lookup("added.txt").size());
+    }
+
+    @Test
+    public void testRefreshPicksUpNewAndRemovedDirectories() throws IOException {
+        FileNameIndex index = FileNameIndex.build(rootDir.toPath());
+
+        File newDir = new File(subDir1, "newdir");
+        newDir.mkdir();
+        new File(newDir, "test1.txt").createNewFile();
+        touch(subDir1);
+        index.refresh();
+        assertEquals("File in new directory should be found", 4, index.lookup("test1.txt").size());
+
+        new File(newDir, "test1.txt").delete();
+        newDir.delete();
+        touch(subDir1);
+        index.refresh();
+        assertEquals("Files in removed directory should be dropped", 3, index.lookup("test1.txt").size());
+    }
+
+    @Test
+    public void testNamePoolDropsDeletedNames() throws IOException {
+        FileNameIndex index = FileNameIndex.build(rootDir.toPath());
+        int pooled = index.getPooledNameCount();
+        long modified = Files.getLastModifiedTime(subDir1.toPath()).toMillis();
+
+        for (int round = 0; round < 3; round++) {
+            File temporary = new File(subDir1, "churn" + round + ".txt");
+            temporary.createNewFile();
+            // Distinct times for every change, however coarse the file system clock is
+            Files.setLastModifiedTime(subDir1.toPath(), FileTime.fromMillis(modified += 10_000));
+            index.refresh();
+            index.refreshDirectories(Collections.singletonList("subdir1"));
+            assertEquals(pooled + 1, index.getPooledNameCount());
+            temporary.delete();
+            Files.setLastModifiedTime(subDir1.toPath(), FileTime.fromMillis(modified += 10_000));
+            index.refresh();
+        }
+        assertEquals("Names of deleted files should leave the pool", pooled, index.getPooledNameCount());
+
+        File removed = new File(rootDir, "subdir2");
+        new File(removed, "test3.txt").delete();
+        removed.delete();
+        index.refreshDirectories(Collections.singletonList(""));
+        assertEquals("Names under a removed directory should leave the pool",
+            pooled - 2, index.getPooledNameCount());
+    }
+
+    @Test
+    public void testRefreshDirectoriesOnlyRelistsGivenDirectories() throws IOException {
+        FileNameIndex index = FileNameIndex.build(rootDir.toPath());
+        File newDir = new File(subDir1, "newdir");
+        newDir.mkdir();
+        new File(newDir, "nested.txt").createNewFile();
+        new File(rootDir, "subdir2/ignored.txt").createNewFile();
+
+        List<Path> added = index.refreshDirectories(Collections.singletonList("subdir1"));
+
+        assertEquals("New directory should be reported", 
+            Collections.singletonList(newDir.toPath().toAbsolutePath()), added);
+        assertEquals("File in new directory should be found", 1, index.lookup("nested.txt").size());
+        assertTrue("Directories not listed should be unchanged", index.lookup("ignored.txt").isEmpty());
+        assertEquals("subdir1/newdir", index.relativize(newDir.toPath()));
+    }
+
+    @Test
+    public void testReadDoesNotChangeIndexUntilApplied() throws IOException {
+        FileNameIndex index = FileNameIndex.build(rootDir.toPath());
+        int pooled = index.getPooledNameCount();
+        File newDir = new File(subDir1, "newdir");
+        newDir.mkdir();
+        new File(newDir, "nested.txt").createNewFile();
+        new File(rootDir, "subdir2/test3.txt").delete();
+        new File(rootDir, "subdir2").delete();
+
+        List<FileNameIndex.DirectoryListing> listings = index.readDirectories(Arrays.asList("subdir1", "subdir2"));
+        assertTrue("Reading should not add files", index.lookup("nested.txt").isEmpty());
+        assertEquals("Reading should not drop files", 1, index.lookup("test3.txt").size());
+
+        index.applyDirectories(listings);
+        assertEquals("Applied listing should add files", 1, index.lookup("nested.txt").size());
+        assertTrue("Applied listing should drop files", index.lookup("test3.txt").isEmpty());
+
+        FileNameIndex.TreeListing tree = index.readTree();
+        new File(newDir, "nested.txt").delete();
+        newDir.delete();
+        touch(subDir1);
+        assertEquals("Reading should not change the tree", 4, index.getDirectoryCount());
+        index.applyTree(tree);
+        assertEquals("Tree read before the delete should still hold the file",
+            1, index.lookup("nested.txt").size());
+        index.refresh();
+        assertEquals("Tree should be back to its original shape", 3, index.getDirectoryCount());
+        assertEquals("Pool should hold the original names again", pooled - 2, index.getPooledNameCount());
+    }
+
+    /**
+     * Waits up to ten seconds for the watch service to apply a change.
+     */
+    private void awaitCondition(String message, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testServiceAppliesChanges() throws IOException, InterruptedException {
+        try (FileNameIndexService service = new FileNameIndexService(rootDir.toPath(), 50)) {
+            service.start();
+            assertEquals("Should index existing files", 3, service.lookup("test1.txt").size());
+            assertEquals("Should watch every directory", 4, service.getWatchedDirectoryCount());
+
+            new File(subDir1, "added.txt").createNewFile();
+            awaitCondition("Created file should be indexed", () -> service.lookup("added.txt").size() == 1);
+
+            File newDir = new File(rootDir, "subdir2/newdir");
+            newDir.mkdir();
+            awaitCondition("New directory should be watched", () -> service.getWatchedDirectoryCount() == 5);
+            new File(newDir, "test1.txt").createNewFile();
+            awaitCondition("File in new directory should be indexed", 
+                () -> service.lookup("test1.txt").size() == 4);
+
+            new File(newDir, "test1.txt").delete();
+            newDir.delete();
+            awaitCondition("Removed directory should be dropped", 
+                () -> service.lookup("test1.txt").size() == 3);
+
+            assertTrue("Events should be counted", service.getEventsProcessed() > 0);
+            assertTrue("Batches should be counted", service.getBatchesApplied() > 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testServiceRejectsNegativeDebounce() throws IOException {
+        new FileNameIndexService(rootDir.toPath(), -1).close();
+    }
+
+    @Test
+    public void testFindFileIndexed() throws IOException {
+        Path indexFile = new File(tempFolder.getRoot(), "finder.idx").toPath();
+        FileFinderRecursive finder = new FileFinderRecursive();
+
+        List<String> first = finder.findFileIndexed(rootDir.getAbsolutePath(), "test1.txt", indexFile);
+        assertTrue("Index file should be created", Files.exists(indexFile));
+
+        List<String> second = finder.findFileIndexed(rootDir.getAbsolutePath(), "test1.txt", indexFile);
+        assertEquals("Should find exactly three files", 3, first.size());
+        assertEquals("Reused index should give the same result", first, second);
+    }
+
+    @Test
+    public void testIndexMatchesNioWalkWithLinks() throws IOException {
+        try {
+            Files.createSymbolicLink(new File(rootDir, "subdir2/test1.txt").toPath(),
+                new File(rootDir, "test1.txt").toPath());
+            Files.createSymbolicLink(new File(rootDir, "subdir2/linked").toPath(), subDir1.toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            return; // Symbolic links are not supported on this file system
+        }
+
+        List<String> walked = new FileFinderRecursive(FileFinderRecursive.Backend.NIO)
+            .findFile(rootDir.getPath(), "test1.txt");
+        List<String> indexed = FileNameIndex.build(rootDir.toPath()).lookup("test1.txt");
+        assertEquals("Linked files are indexed, linked directories are not entered", 4, indexed.size());
+        assertEquals(new HashSet<>(walked), new HashSet<>(indexed));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuildOnFile() throws IOException {
+        FileNameIndex.build(tempFolder.newFile("notADirectory.txt").toPath());
+    }
+
+    @Test
+    public void testAnalyzePerformance() throws IOException {
+        Path indexFile = new File(tempFolder.getRoot(), "bench.idx").toPath();
+        FileNameIndex.PerformanceResult result =
+            FileNameIndex.analyzePerformance(rootDir.toPath(), "test1.txt", indexFile);
+
+        assertEquals(3, result.walkMatches);
+        assertEquals(3, result.indexMatches);
+        assertTrue("The changed subtree should be relisted", result.directoriesRelisted > 0);
+        assertTrue("Unchanged directories should not be relisted", result.directoriesRelisted < result.directoryCount);
+        assertTrue(result.coldWalkTime >= 0);
+        assertTrue(result.indexLoadTime >= 0);
+        assertTrue(result.indexLookupTime >= 0);
+    }
+}
@@ -0,0 +1,359 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches file names against many queries at once, so that a single directory walk can
+ * answer all of them. Queries use the syntax of {@link java.nio.file.FileSystem#getPathMatcher}:
+ * {@code glob:} and {@code regex:} prefixes select a pattern, anything else is an exact name.
+ * <p>
+ * Exact names are answered with one hash lookup. Every glob is reduced to the longest
+ * literal it requires, and all those literals are searched in one pass over the name
+ * with an Aho-Corasick automaton; only globs whose literal occurs are checked with their
+ * compiled pattern. Regular expressions and globs without literals are always checked.
+ */
+public class FileNameMatcher {
+    private static final String GLOB_PREFIX = "glob:";
+    private static final String REGEX_PREFIX = "regex:";
+
+    private final List<String> queries;
+    private final Set<String> exactNames = new HashSet<>();
+    // Patterns whose literal must be found by the automaton before they are checked
+    private final List<PatternQuery> filteredPatterns = new ArrayList<>();
+    // Patterns that are checked against every name
+    private final List<PatternQuery> unfilteredPatterns = new ArrayList<>();
+    private final LiteralAutomaton literals;
+
+    /**
+     * Compiles the given queries.
+     *
+     * @param queries Exact names, {@code glob:} patterns and {@code regex:} patterns
+     * @throws IllegalArgumentException if queries are empty, contain an empty query
+     *         or a malformed pattern
+     */
+    public FileNameMatcher(Collection<String> queries) {
+        if (queries == null || queries.isEmpty()) {
+            throw new IllegalArgumentException("Queries cannot be null or empty");
+        }
+
+        Set<String> distinct = new LinkedHashSet<>();
+        List<String> requiredLiterals = new ArrayList<>();
+        for (String query : queries) {
+            if (query == null || query.trim().isEmpty()) {
+                throw new IllegalArgumentException("Query cannot be null or empty");
+            }
+            if (!distinct.add(query)) {
+                continue;
+            }
+
+            if (query.startsWith(GLOB_PREFIX)) {
+                String glob = query.substring(GLOB_PREFIX.length());
+                PatternQuery pattern = new PatternQuery(query, compile(globToRegex(glob), query));
+                String literal = longestLiteral(glob);
+                if (literal.isEmpty()) {
+                    unfilteredPatterns.add(pattern);
+                } else {
+                    filteredPatterns.add(pattern);
+                    requiredLiterals.add(literal);
+                }
+            } else if (query.startsWith(REGEX_PREFIX)) {
+                String regex = query.substring(REGEX_PREFIX.length());
+                unfilteredPatterns.add(new PatternQuery(query, compile(regex, query)));
+            } else {
+                exactNames.add(query);
+            }
+        }
+        this.queries = Collections.unmodifiableList(new ArrayList<>(distinct));
+        this.literals = new LiteralAutomaton(requiredLiterals);
+    }
+
+    /**
+     * Returns the distinct queries in the order they were given.
+     */
+    public List<String> getQueries() {
+        return queries;
+    }
+
+    /**
+     * Checks whether a name matches at least one query.
+     *
+     * @param name The file name
+     * @return true if any query matches
+     */
+    public boolean matchesAny(String name) {
+        if (exactNames.contains(name)) {
+            return true;
+        }
+        for (PatternQuery pattern : unfilteredPatterns) {
+            if (pattern.matches(name)) {
+                return true;
+            }
+        }
+        if (!filteredPatterns.isEmpty()) {
+            boolean[] candidates = literals.search(name);
+            for (int i = 0; i < candidates.length; i++) {
+                if (candidates[i] && filteredPatterns.get(i).matches(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns every query that matches a name.
+     *
+     * @param name The file name
+     * @return The matching queries, in the order they were given
+     */
+    public List<String> matchingQueries(String name) {
+        Set<String> matched = new LinkedHashSet<>();
+        if (exactNames.contains(name)) {
+            matched.add(name);
+        }
+        if (!filteredPatterns.isEmpty()) {
+            boolean[] candidates = literals.search(name);
+            for (int i = 0; i < candidates.length; i++) {
+                if (candidates[i] && filteredPatterns.get(i).matches(name)) {
+                    matched.add(filteredPatterns.get(i).query);
+                }
+            }
+        }
+        for (PatternQuery pattern : unfilteredPatterns) {
+            if (pattern.matches(name)) {
+                matched.add(pattern.query);
+            }
+        }
+
+        if (matched.size() <= 1) {
+            return new ArrayList<>(matched);
+        }
+        List<String> ordered = new ArrayList<>(matched.size());
+        for (String query : queries) {
+            if (matched.contains(query)) {
+                ordered.add(query);
+            }
+        }
+        return ordered;
+    }
+
+    private static Pattern compile(String regex, String query) {
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid pattern: " + query, e);
+        }
+    }
+
+    /**
+     * Translates a glob into a regular expression. Supports {@code *}, {@code ?},
+     * bracket expressions, {@code {a,b}} groups and backslash escapes.
+     */
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inGroup = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*':
+                    regex.append(".*");
+                    break;
+                case '?':
+                    regex.append('.');
+                    break;
+                case '\\':
+                    if (i + 1 == glob.length()) {
+                        throw new IllegalArgumentException("Glob ends with an escape: " + glob);
+                    }
+                    appendLiteral(regex, glob.charAt(++i));
+                    break;
+                case '[': {
+                    int end = glob.indexOf(']', i + 2);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unclosed bracket expression: " + glob);
+                    }
+                    String content = glob.substring(i + 1, end);
+                    if (content.startsWith("!")) {
+                        content = "^" + content.substring(1);
+                    } else if (content.startsWith("^")) {
+                        content = "\\" + content;
+                    }
+                    regex.append('[').append(content.replace("[", "\\[")).append(']');
+                    i = end;
+                    break;
+                }
+                case '{':
+                    if (inGroup) {
+                        throw new IllegalArgumentException("Nested groups are not supported: " + glob);
+                    }
+                    regex.append("(?:");
+                    inGroup = true;
+                    break;
+                case '}':
+                    if (!inGroup) {
+                        regex.append("\\}");
+                    } else {
+                        regex.append(')');
+                        inGroup = false;
+                    }
+                    break;
+                case ',':
+                    regex.append(inGroup ? "|" : ",");
+                    break;
+                default:
+                    appendLiteral(regex, c);
+            }
+        }
+        if (inGroup) {
+            throw new IllegalArgumentException("Unclosed group: " + glob);
+        }
+        return regex.toString();
+    }
+
+    private static void appendLiteral(StringBuilder regex, char c) {
+        if ("\\.[]{}()<>*+-=!?^$|".indexOf(c) >= 0) {
+            regex.append('\\');
+        }
+        regex.append(c);
+    }
+
+    /**
+     * Returns the longest run of literal characters that every name matching
+     * the glob must contain, or an empty string if there is none.
+     */
+    static String longestLiteral(String glob) {
+        String longest = "";
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            boolean literal = depth == 0;
+            if (c == '\\' && i + 1 < glob.length()) {
+                c = glob.charAt(++i);
+            } else if (c == '*' || c == '?' || c == '[' || c == '{' || c == '}') {
+                literal = false;
+                if (c == '[') {
+                    int end = glob.indexOf(']', i + 2);
+                    i = end < 0 ? glob.length() : end;
+                } else if (c == '{') {
+                    depth++;
+                } else if (c == '}' && depth > 0) {
+                    depth--;
+                }
+            }
+
+            if (literal) {
+                current.append(c);
+            } else {
+                if (current.length() > longest.length()) {
+                    longest = current.toString();
+                }
+                current.setLength(0);
+            }
+        }
+        return current.length() > longest.length() ? current.toString() : longest;
+    }
+
+    /**
+     * A compiled glob or regular expression query.
+     */
+    private static class PatternQuery {
+        final String query;
+        final Pattern pattern;
+
+        PatternQuery(String query, Pattern pattern) {
+            this.query = query;
+            this.pattern = pattern;
+        }
+
+        boolean matches(String name) {
+            return pattern.matcher(name).matches();
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton reporting which of a fixed set of literals occur in a name.
+     */
+    private static class LiteralAutomaton {
+        private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+        private final List<int[]> outputs = new ArrayList<>();
+        private final int[] failure;
+        private final int literalCount;
+
+        LiteralAutomaton(List<String> literals) {
+            this.literalCount = literals.size();
+            addState();
+            List<List<Integer>> outputLists = new ArrayList<>();
+            outputLists.add(new ArrayList<>());
+
+            // Build the trie of all literals
+            for (int id = 0; id < literals.size(); id++) {
+                int state = 0;
+                for (char c : literals.get(id).toCharArray()) {
+                    Integer next = transitions.get(state).get(c);
+                    if (next == null) {
+                        next = addState();
+                        outputLists.add(new ArrayList<>());
+                        transitions.get(state).put(c, next);
+                    }
+                    state = next;
+                }
+                outputLists.get(state).add(id);
+            }
+
+            // Breadth-first pass computing failure links and merged outputs
+            failure = new int[transitions.size()];
+            List<Integer> queue = new ArrayList<>(transitions.get(0).values());
+            for (int head = 0; head < queue.size(); head++) {
+                int state = queue.get(head);
+                for (Map.Entry<Character, Integer> edge : transitions.get(state).entrySet()) {
+                    int child = edge.getValue();
+                    int fallback = failure[state];
+                    while (fallback != 0 && !transitions.get(fallback).containsKey(edge.getKey())) {
+                        fallback = failure[fallback];
+                    }
+                    Integer target = transitions.get(fallback).get(edge.getKey());
+                    failure[child] = target != null && target != child ? target : 0;
+                    outputLists.get(child).addAll(outputLists.get(failure[child]));
+                    queue.add(child);
+                }
+            }
+            for (List<Integer> ids : outputLists) {
+                outputs.add(ids.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+
+        private int addState() {
+            transitions.add(new HashMap<>(4));
+            return transitions.size() - 1;
+        }
+
+        /**
+         * Returns a flag per literal telling whether it occurs in the text.
+         */
+        boolean[] search(String text) {
+            boolean[] found = new boolean[literalCount];
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                Integer next;
+                while ((next = transitions.get(state).get(c)) == null && state != 0) {
+                    state = failure[state];
+                }
+                state = next == null ? 0 : next;
+                for (int id : outputs.get(state)) {
+                    found[id] = true;
+                }
+            }
+            return found;
+        }
+    }
+}
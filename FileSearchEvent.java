@@ -0,0 +1,29 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one directory walk, from the start of the search until the
+ * walk finishes or is closed early.
+ */
+@Name("filefinder.Search")
+@Label("File Search")
+@Category({ "File Finder" })
+@Description("One walk of a directory tree")
+class FileSearchEvent extends jdk.jfr.Event {
+    @Label("Root")
+    String root;
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Directories Listed")
+    long directoriesListed;
+
+    @Label("Directories Pruned")
+    long directoriesPruned;
+
+    @Label("Entries Examined")
+    long entriesExamined;
+}
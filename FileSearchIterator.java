@@ -0,0 +1,742 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * A lazy depth-first walk over a directory tree that yields the files whose name
+ * matches a filter, one at a time. Directories are only listed when the caller asks for
+ * the next match, so a search can be stopped early without walking the rest of the tree.
+ * A {@link SearchFilter} is applied during the walk: pruned directories are never listed.
+ * Callers must {@link #close()} the iterator to release open directory handles.
+ */
+abstract class FileSearchIterator implements Iterator<Path>, Closeable {
+    private static final Metrics.Counter WALKS = Metrics.counter("filefinder.walks");
+    private static final Metrics.Counter DIRECTORIES_LISTED = Metrics.counter("filefinder.directories.listed");
+    private static final Metrics.Counter ENTRIES_EXAMINED = Metrics.counter("filefinder.entries.examined");
+    private static final Metrics.Histogram LISTING_NANOS = Metrics.histogram("filefinder.listing.nanos");
+    private static final Metrics.Histogram DIRECTORIES_PER_SECOND =
+        Metrics.histogram("filefinder.directories.per.second");
+
+    protected final Predicate<String> nameFilter;
+    protected final SearchFilter filter;
+    protected final TraversalStatistics statistics = new TraversalStatistics();
+    private final boolean trackRelativePaths;
+    private final Path root;
+    private final FileFinderRecursive.Backend backend;
+    private final FileSearchEvent event = new FileSearchEvent();
+    private final long startTime;
+    private BudgetTracker budget;
+    // Attributes of the path last computed, read without following links, when the walk has them
+    protected BasicFileAttributes nextAttributes;
+    private BasicFileAttributes lastAttributes;
+    private Path next;
+    private boolean finished;
+    private boolean recorded;
+
+    protected FileSearchIterator(Path root, FileFinderRecursive.Backend backend, Predicate<String> nameFilter,
+                                 SearchFilter filter) {
+        this.root = root;
+        this.backend = backend;
+        this.nameFilter = nameFilter;
+        this.filter = filter;
+        this.trackRelativePaths = !filter.getIgnoreFileNames().isEmpty();
+        event.begin();
+        this.startTime = Metrics.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Creates an iterator for the given backend.
+     *
+     * @param root The absolute starting directory
+     * @param nameFilter Accepts the names of the files to yield
+     * @param filter Restricts the directories visited and the files yielded
+     * @param backend The file system API used to walk the directory tree
+     * @param followLinks Whether the NIO backend descends into symbolic links to directories
+     * @param maxOpenDirectories How many directory handles the NIO backend keeps open at once
+     * @param maxBufferedEntries How many entries of directories on the current path the walk
+     *        keeps in memory; directories beyond the limit are listed again when the walk
+     *        returns to them
+     * @return A new iterator positioned before the first match
+     */
+    static FileSearchIterator open(Path root, Predicate<String> nameFilter, SearchFilter filter,
+                                   FileFinderRecursive.Backend backend, boolean followLinks,
+                                   int maxOpenDirectories, int maxBufferedEntries) {
+        if (backend == FileFinderRecursive.Backend.NIO) {
+            return new NioIterator(root, nameFilter, filter, followLinks, maxOpenDirectories, maxBufferedEntries);
+        }
+        return new JavaIoIterator(root.toFile(), nameFilter, filter, maxBufferedEntries);
+    }
+
+    /**
+     * Advances the walk until the next match is found.
+     *
+     * @return The next matching path, or null when the walk is complete
+     */
+    protected abstract Path computeNext();
+
+    /**
+     * Returns the attributes of the path last returned by {@link #next()}, as read by the
+     * walk without following symbolic links, or null if the walk did not read them.
+     */
+    BasicFileAttributes lastAttributes() {
+        return lastAttributes;
+    }
+
+    /**
+     * Makes the walk count every entry against the budget and end early once it must stop.
+     */
+    void setBudget(BudgetTracker budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Counts one entry against the budget, if any.
+     *
+     * @return true if the walk must stop
+     */
+    protected boolean budgetExhausted() {
+        return budget != null && budget.tick();
+    }
+
+    /**
+     * Returns the counters of the walk so far.
+     */
+    TraversalStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = computeNext();
+            if (next == null) {
+                finished = true;
+                close();
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Path next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Path result = next;
+        lastAttributes = nextAttributes;
+        next = null;
+        nextAttributes = null;
+        return result;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        if (!recorded) {
+            recorded = true;
+            recordWalk();
+        }
+    }
+
+    /**
+     * Reports the counters of the finished or abandoned walk to {@link Metrics} and the
+     * {@link FileSearchEvent} Flight Recorder event.
+     */
+    private void recordWalk() {
+        event.end();
+        if (event.shouldCommit()) {
+            event.root = root.toString();
+            event.backend = backend.name();
+            event.directoriesListed = statistics.getDirectoriesListed();
+            event.directoriesPruned = statistics.getDirectoriesPruned();
+            event.entriesExamined = statistics.getEntriesExamined();
+            event.commit();
+        }
+        if (Metrics.isEnabled() && startTime != 0) {
+            long elapsed = Math.max(1, System.nanoTime() - startTime);
+            WALKS.increment();
+            DIRECTORIES_LISTED.add(statistics.getDirectoriesListed());
+            ENTRIES_EXAMINED.add(statistics.getEntriesExamined());
+            DIRECTORIES_PER_SECOND.record((long) (statistics.getDirectoriesListed() * 1e9 / elapsed));
+        }
+    }
+
+    /**
+     * Returns the start time of a directory listing, or 0 when metrics are disabled.
+     */
+    static long listingStarted() {
+        return Metrics.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the latency of a directory listing started with {@link #listingStarted()}.
+     *
+     * @param event The Flight Recorder event begun before the listing
+     * @param startTime The value returned by {@link #listingStarted()}
+     * @param directory The directory that was listed
+     * @param entries Number of entries read, or -1 when the directory is read lazily
+     * @param backend The API used for the listing
+     */
+    static void listingFinished(DirectoryListingEvent event, long startTime, Object directory, int entries,
+                                FileFinderRecursive.Backend backend) {
+        if (startTime != 0) {
+            LISTING_NANOS.record(System.nanoTime() - startTime);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.directory = directory.toString();
+            event.entries = entries;
+            event.backend = backend.name();
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the path of a child relative to the root, or null when no ignore files
+     * are in use and relative paths are not needed.
+     */
+    protected String childPath(Frame parent, String name) {
+        if (!trackRelativePaths) {
+            return null;
+        }
+        return parent.relativePath.isEmpty() ? name : parent.relativePath + "/" + name;
+    }
+
+    /**
+     * Decides whether a subdirectory is listed, counting it as pruned otherwise.
+     */
+    protected boolean shouldDescend(Frame parent, String name, String relativePath) {
+        if (parent.depth + 1 >= filter.getMaxDepth()
+                || filter.isDirectoryExcluded(name)
+                || (parent.ignoreRules != null && parent.ignoreRules.isIgnored(relativePath, true))) {
+            statistics.directoryPruned();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks a file whose name matched against the ignore rules, counting it as filtered
+     * if it is ignored.
+     */
+    protected boolean isIgnored(Frame parent, String relativePath) {
+        if (parent.ignoreRules != null && parent.ignoreRules.isIgnored(relativePath, false)) {
+            statistics.fileFiltered();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks the size and modification time of a file whose name matched, counting it
+     * as filtered if it is rejected.
+     */
+    protected boolean acceptsAttributes(long size, long lastModifiedMillis) {
+        if (filter.acceptsAttributes(size, lastModifiedMillis)) {
+            return true;
+        }
+        statistics.fileFiltered();
+        return false;
+    }
+
+    /**
+     * Reads the ignore files named by the filter in a directory that is about to be listed.
+     * Also used by the parallel search of {@link FileFinderRecursive}.
+     */
+    static IgnoreRules readIgnoreRules(SearchFilter filter, Path directory, String relativePath,
+                                       IgnoreRules inherited) {
+        IgnoreRules rules = inherited;
+        for (String ignoreFileName : filter.getIgnoreFileNames()) {
+            Path ignoreFile = directory.resolve(ignoreFileName);
+            if (!Files.isRegularFile(ignoreFile)) {
+                continue;
+            }
+            try {
+                List<String> lines = Files.readAllLines(ignoreFile, StandardCharsets.UTF_8);
+                rules = IgnoreRules.parse(lines, relativePath, rules);
+            } catch (IOException e) {
+                // Unreadable ignore files are skipped, like unreadable directories
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Returns the attributes of the regular file a directory entry stands for, or null if
+     * it is not one. When links are not followed, a link to a regular file still counts,
+     * with the attributes of its target, as it does for {@link File#isFile()}; only linked
+     * directories are never entered. Also used by the parallel search of
+     * {@link FileFinderRecursive}.
+     *
+     * @param entry The directory entry
+     * @param attrs Its attributes, read as the walk reads them
+     * @param followLinks Whether the walk follows symbolic links
+     */
+    static BasicFileAttributes regularFileAttributes(Path entry, BasicFileAttributes attrs, boolean followLinks) {
+        if (attrs.isRegularFile()) {
+            return attrs;
+        }
+        if (followLinks || !attrs.isSymbolicLink()) {
+            return null;
+        }
+        try {
+            BasicFileAttributes target = Files.readAttributes(entry, BasicFileAttributes.class);
+            return target.isRegularFile() ? target : null;
+        } catch (IOException e) {
+            return null; // Broken link
+        }
+    }
+
+    /**
+     * Position of the walk inside one open directory.
+     */
+    protected static class Frame {
+        final int depth;
+        final String relativePath;
+        final IgnoreRules ignoreRules;
+
+        Frame(int depth, String relativePath, IgnoreRules ignoreRules) {
+            this.depth = depth;
+            this.relativePath = relativePath;
+            this.ignoreRules = ignoreRules;
+        }
+    }
+
+    /**
+     * Walks the tree with {@link File#list()}, keeping the names of the entries not yet
+     * visited for each directory on the current path. Names are released as soon as they
+     * are visited, and no {@link File} objects are retained between steps.
+     * <p>
+     * When the names kept for the directories on the path would exceed the buffer limit,
+     * the names of ancestors are dropped, nearest first, and only their position is kept;
+     * an ancestor is listed again when the walk returns to it and resumes after the entries
+     * it had already visited. Entries added or removed in the meantime may shift that
+     * position, as they can in any walk of a changing tree. The directory being listed is
+     * always held in full, since {@link File#list()} reads it at once.
+     */
+    private static class JavaIoIterator extends FileSearchIterator {
+        private final Deque<IoFrame> frames = new ArrayDeque<>();
+        private final int maxBufferedEntries;
+        // Names not yet visited, over all frames that hold their names
+        private long bufferedEntries;
+
+        JavaIoIterator(File root, Predicate<String> nameFilter, SearchFilter filter, int maxBufferedEntries) {
+            super(root.toPath(), FileFinderRecursive.Backend.JAVA_IO, nameFilter, filter);
+            this.maxBufferedEntries = maxBufferedEntries;
+            push(root, 0, "", null);
+        }
+
+        private static String[] list(File directory) {
+            DirectoryListingEvent event = new DirectoryListingEvent();
+            event.begin();
+            long startTime = listingStarted();
+            String[] names = directory.list();
+            listingFinished(event, startTime, directory, names == null ? 0 : names.length,
+                FileFinderRecursive.Backend.JAVA_IO);
+            return names;
+        }
+
+        private void push(File directory, int depth, String relativePath, IgnoreRules inherited) {
+            String[] names = list(directory);
+            if (names != null) {
+                statistics.directoryListed();
+                statistics.depthReached(depth);
+                IgnoreRules rules = relativePath == null
+                    ? null
+                    : readIgnoreRules(filter, directory.toPath(), relativePath, inherited);
+                release(names.length);
+                bufferedEntries += names.length;
+                frames.push(new IoFrame(directory, names, depth, relativePath, rules));
+            }
+        }
+
+        /**
+         * Drops the names of ancestors, nearest first, until the given number of new
+         * names fits in the buffer limit or no ancestor holds names.
+         */
+        private void release(int needed) {
+            for (IoFrame frame : frames) {
+                if (bufferedEntries + needed <= maxBufferedEntries) {
+                    return;
+                }
+                if (frame.names != null) {
+                    bufferedEntries -= frame.names.length - frame.index;
+                    frame.names = null;
+                }
+            }
+        }
+
+        /**
+         * Lists a directory whose names were dropped again, skipping the entries it had
+         * already visited.
+         *
+         * @return false if the directory can no longer be listed
+         */
+        private boolean resume(IoFrame frame) {
+            String[] names = list(frame.directory);
+            if (names == null) {
+                return false;
+            }
+            int skipped = Math.min(frame.index, names.length);
+            Arrays.fill(names, 0, skipped, null);
+            release(names.length - skipped);
+            bufferedEntries += names.length - skipped;
+            frame.names = names;
+            frame.index = skipped;
+            return true;
+        }
+
+        @Override
+        protected Path computeNext() {
+            while (!frames.isEmpty()) {
+                if (budgetExhausted()) {
+                    return null;
+                }
+                IoFrame frame = frames.peek();
+                if (frame.names == null && !resume(frame)) {
+                    frames.pop();
+                    continue;
+                }
+                if (frame.index == frame.names.length) {
+                    frames.pop();
+                    continue;
+                }
+
+                String name = frame.names[frame.index];
+                frame.names[frame.index++] = null;
+                bufferedEntries--;
+                File file = new File(frame.directory, name);
+                statistics.entryExamined();
+                if (file.isFile()) {
+                    if (!nameFilter.test(name)) {
+                        continue;
+                    }
+                    String relativePath = childPath(frame, name);
+                    if (isIgnored(frame, relativePath)) {
+                        continue;
+                    }
+                    if (filter.hasAttributeFilters() && !acceptsAttributes(file.length(), file.lastModified())) {
+                        continue;
+                    }
+                    return file.toPath();
+                } else if (file.isDirectory()) {
+                    String relativePath = childPath(frame, name);
+                    if (shouldDescend(frame, name, relativePath)) {
+                        push(file, frame.depth + 1, relativePath, frame.ignoreRules);
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            frames.clear();
+            bufferedEntries = 0;
+        }
+
+        private static class IoFrame extends Frame {
+            final File directory;
+            // Names of the entries, null while dropped to respect the buffer limit
+            String[] names;
+            int index;
+
+            IoFrame(File directory, String[] names, int depth, String relativePath, IgnoreRules ignoreRules) {
+                super(depth, relativePath, ignoreRules);
+                this.directory = directory;
+                this.names = names;
+            }
+        }
+    }
+
+    /**
+     * Walks the tree with {@link DirectoryStream}, reading {@link BasicFileAttributes}
+     * once per entry. When links are followed, directories whose file key matches an
+     * ancestor are reported as cycles and skipped.
+     * <p>
+     * Each directory on the current path normally keeps its stream open. Once the path is
+     * deeper than the handle limit, the parent's stream is closed before descending, so
+     * arbitrarily deep trees never exhaust file descriptors. Up to the buffer limit, the
+     * parent's remaining entries are read into memory first; the rest are reached by
+     * opening the directory again when the walk returns to it and skipping the entries
+     * already read, so memory stays bounded however large the directories are.
+     */
+    private static class NioIterator extends FileSearchIterator {
+        private final LinkOption[] linkOptions;
+        private final boolean followLinks;
+        private final int maxOpenDirectories;
+        private final int maxBufferedEntries;
+        private final Deque<NioFrame> frames = new ArrayDeque<>();
+        private int openDirectories;
+        // Entries read into memory and not yet visited, over all detached frames
+        private int bufferedEntries;
+
+        NioIterator(Path root, Predicate<String> nameFilter, SearchFilter filter, boolean followLinks,
+                    int maxOpenDirectories, int maxBufferedEntries) {
+            super(root, FileFinderRecursive.Backend.NIO, nameFilter, filter);
+            this.followLinks = followLinks;
+            this.maxOpenDirectories = maxOpenDirectories;
+            this.maxBufferedEntries = maxBufferedEntries;
+            this.linkOptions = followLinks ? new LinkOption[0] : new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
+            BasicFileAttributes attrs = readAttributes(root);
+            push(root, attrs == null ? null : attrs.fileKey(), 0, "", null);
+        }
+
+        private void push(Path directory, Object fileKey, int depth, String relativePath, IgnoreRules inherited) {
+            if (openDirectories >= maxOpenDirectories && !frames.isEmpty()) {
+                bufferedEntries += frames.peek().detach(maxBufferedEntries - bufferedEntries);
+                openDirectories--;
+            }
+            try {
+                DirectoryStream<Path> stream = openStream(directory);
+                statistics.directoryListed();
+                statistics.depthReached(depth);
+                IgnoreRules rules = relativePath == null
+                    ? null
+                    : readIgnoreRules(filter, directory, relativePath, inherited);
+                frames.push(new NioFrame(directory, stream, fileKey == null ? directory : fileKey, depth,
+                    relativePath, rules));
+            } catch (IOException e) {
+                // Skip directories that cannot be read, like the java.io backend does
+            }
+        }
+
+        private DirectoryStream<Path> openStream(Path directory) throws IOException {
+            DirectoryListingEvent event = new DirectoryListingEvent();
+            event.begin();
+            long startTime = listingStarted();
+            DirectoryStream<Path> stream = Files.newDirectoryStream(directory);
+            listingFinished(event, startTime, directory, -1, FileFinderRecursive.Backend.NIO);
+            openDirectories++;
+            return stream;
+        }
+
+        private void pop() {
+            NioFrame frame = frames.pop();
+            bufferedEntries -= frame.buffered;
+            if (frame.closeStream()) {
+                openDirectories--;
+            }
+        }
+
+        /**
+         * Opens a detached directory again once its buffered entries are used up and skips
+         * the entries already read. Its descendants have been popped, so this stays within
+         * the handle limit.
+         *
+         * @return false if the directory can no longer be read
+         */
+        private boolean resume(NioFrame frame) {
+            try {
+                frame.attach(openStream(frame.directory));
+                return true;
+            } catch (IOException | DirectoryIteratorException e) {
+                if (frame.closeStream()) {
+                    openDirectories--;
+                }
+                return false;
+            }
+        }
+
+        private BasicFileAttributes readAttributes(Path path) {
+            try {
+                return Files.readAttributes(path, BasicFileAttributes.class, linkOptions);
+            } catch (IOException e) {
+                if (followLinks) {
+                    // Broken link: fall back to the attributes of the link itself
+                    try {
+                        return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException ignored) {
+                        return null;
+                    }
+                }
+                return null;
+            }
+        }
+
+        private boolean isAncestor(Path directory, Object fileKey) {
+            for (NioFrame frame : frames) {
+                if (fileKey != null ? fileKey.equals(frame.key) : isSameFile(directory, frame.key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isSameFile(Path directory, Object key) {
+            try {
+                return key instanceof Path && Files.isSameFile(directory, (Path) key);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        protected Path computeNext() {
+            while (!frames.isEmpty()) {
+                if (budgetExhausted()) {
+                    return null;
+                }
+                NioFrame frame = frames.peek();
+                Path entry;
+                try {
+                    if (!frame.entries.hasNext() && (!frame.truncated || !resume(frame) || !frame.entries.hasNext())) {
+                        pop();
+                        continue;
+                    }
+                    entry = frame.next();
+                } catch (DirectoryIteratorException e) {
+                    pop();
+                    continue;
+                }
+                if (frame.stream == null) {
+                    bufferedEntries--;
+                }
+
+                statistics.entryExamined();
+                BasicFileAttributes attrs = readAttributes(entry);
+                if (attrs == null) {
+                    continue;
+                }
+                String name = entry.getFileName().toString();
+                BasicFileAttributes fileAttrs = regularFileAttributes(entry, attrs, followLinks);
+                if (fileAttrs != null) {
+                    if (!nameFilter.test(name)) {
+                        continue;
+                    }
+                    String relativePath = childPath(frame, name);
+                    if (isIgnored(frame, relativePath)) {
+                        continue;
+                    }
+                    if (filter.hasAttributeFilters()
+                            && !acceptsAttributes(fileAttrs.size(), fileAttrs.lastModifiedTime().toMillis())) {
+                        continue;
+                    }
+                    nextAttributes = followLinks ? null : attrs;
+                    return entry;
+                } else if (attrs.isDirectory()) {
+                    String relativePath = childPath(frame, name);
+                    if (!shouldDescend(frame, name, relativePath)) {
+                        continue;
+                    }
+                    Object fileKey = attrs.fileKey();
+                    if (followLinks && isAncestor(entry, fileKey)) {
+                        statistics.loopDetected();
+                    } else {
+                        push(entry, fileKey, frame.depth + 1, relativePath, frame.ignoreRules);
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            while (!frames.isEmpty()) {
+                pop();
+            }
+        }
+
+        private static class NioFrame extends Frame {
+            final Path directory;
+            final Object key;
+            DirectoryStream<Path> stream;
+            Iterator<Path> entries;
+            // Entries taken from the directory so far, where a reopened stream resumes
+            int consumed;
+            // Entries read into memory by detach() and not yet visited
+            int buffered;
+            // Whether the directory had more entries than detach() could buffer
+            boolean truncated;
+
+            NioFrame(Path directory, DirectoryStream<Path> stream, Object key, int depth, String relativePath,
+                     IgnoreRules ignoreRules) {
+                super(depth, relativePath, ignoreRules);
+                this.directory = directory;
+                this.stream = stream;
+                this.entries = stream.iterator();
+                this.key = key;
+            }
+
+            Path next() {
+                Path entry = entries.next();
+                consumed++;
+                if (stream == null) {
+                    buffered--;
+                }
+                return entry;
+            }
+
+            /**
+             * Reads up to the given number of the remaining entries into memory and closes
+             * the directory handle.
+             *
+             * @param room How many entries may be buffered
+             * @return The number of entries buffered
+             */
+            int detach(int room) {
+                List<Path> remaining = new ArrayList<>();
+                try {
+                    while (remaining.size() < room && entries.hasNext()) {
+                        remaining.add(entries.next());
+                    }
+                    truncated = entries.hasNext();
+                } catch (DirectoryIteratorException e) {
+                    // Keep what could be read, as a failing stream would
+                }
+                closeStream();
+                entries = remaining.iterator();
+                buffered = remaining.size();
+                return buffered;
+            }
+
+            /**
+             * Continues from a newly opened stream of the directory, after the entries
+             * already consumed.
+             */
+            void attach(DirectoryStream<Path> reopened) {
+                stream = reopened;
+                entries = reopened.iterator();
+                truncated = false;
+                for (int i = 0; i < consumed && entries.hasNext(); i++) {
+                    entries.next();
+                }
+            }
+
+            /**
+             * Closes the directory handle if it is still open.
+             *
+             * @return true if a handle was closed
+             */
+            boolean closeStream() {
+                if (stream == null) {
+                    return false;
+                }
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    // Nothing left to release for this directory
+                }
+                stream = null;
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a permutation generation run within a {@link Budget}: the permutations
+ * generated, in lexicographic order, and whether they are all of them. A generation stopped
+ * early holds the first permutations in order, so it can be resumed with
+ * {@link StringPermutationsRecursive#page} from the next rank.
+ */
+public class GenerationResult {
+    private final List<String> permutations;
+    private final BigInteger totalCount;
+    private final Budget.StopReason stopReason;
+
+    GenerationResult(List<String> permutations, BigInteger totalCount, Budget.StopReason stopReason) {
+        this.permutations = Collections.unmodifiableList(permutations);
+        this.totalCount = totalCount;
+        this.stopReason = stopReason;
+    }
+
+    /**
+     * Returns the permutations generated, in lexicographic order.
+     */
+    public List<String> getPermutations() {
+        return permutations;
+    }
+
+    /**
+     * Returns the number of distinct permutations of the input.
+     */
+    public BigInteger getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the fraction of the permutations that were generated, from 0 to 1.
+     */
+    public double getFractionCovered() {
+        return totalCount.signum() == 0 ? 1 : permutations.size() / totalCount.doubleValue();
+    }
+
+    /**
+     * Returns whether every permutation was generated.
+     */
+    public boolean isComplete() {
+        return stopReason == Budget.StopReason.COMPLETED;
+    }
+
+    /**
+     * Returns why the generation stopped.
+     */
+    public Budget.StopReason getStopReason() {
+        return stopReason;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Generated %d of %s permutations (%.1f%%): %s",
+            permutations.size(), totalCount, getFractionCovered() * 100, stopReason);
+    }
+}
@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The rules of one .gitignore-style file, chained to the rules of the enclosing directories.
+ * Supported syntax: comments ({@code #}), negation ({@code !}), directory-only rules
+ * (trailing {@code /}), rules anchored to the ignore file's directory (a {@code /} before the
+ * end), {@code *}, {@code ?}, {@code [...]} and {@code **}. As in git, the last matching rule
+ * wins, and rules of deeper ignore files take precedence over those of their ancestors.
+ */
+class IgnoreRules {
+    private final IgnoreRules parent;
+    // Path of the directory holding the ignore file, relative to the search root
+    private final String basePath;
+    private final List<Rule> rules;
+
+    private IgnoreRules(IgnoreRules parent, String basePath, List<Rule> rules) {
+        this.parent = parent;
+        this.basePath = basePath;
+        this.rules = rules;
+    }
+
+    /**
+     * Parses the lines of an ignore file.
+     *
+     * @param lines The lines of the file
+     * @param basePath Path of the directory holding the file, relative to the search root
+     * @param parent Rules of the enclosing directories, or null
+     * @return The parsed rules, or the parent if the file has no rules
+     */
+    static IgnoreRules parse(List<String> lines, String basePath, IgnoreRules parent) {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : lines) {
+            Rule rule = Rule.parse(line);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        return rules.isEmpty() ? parent : new IgnoreRules(parent, basePath, rules);
+    }
+
+    /**
+     * Checks whether an entry is ignored.
+     *
+     * @param relativePath Path of the entry relative to the search root, using '/'
+     * @param directory Whether the entry is a directory
+     * @return true if the last matching rule ignores the entry
+     */
+    boolean isIgnored(String relativePath, boolean directory) {
+        Boolean verdict = evaluate(relativePath, directory);
+        return verdict != null && verdict;
+    }
+
+    private Boolean evaluate(String relativePath, boolean directory) {
+        Boolean verdict = parent == null ? null : parent.evaluate(relativePath, directory);
+        String pathFromBase = basePath.isEmpty() ? relativePath : relativePath.substring(basePath.length() + 1);
+        String name = pathFromBase.substring(pathFromBase.lastIndexOf('/') + 1);
+        for (Rule rule : rules) {
+            if (rule.matches(pathFromBase, name, directory)) {
+                verdict = !rule.negated;
+            }
+        }
+        return verdict;
+    }
+
+    /**
+     * A single line of an ignore file.
+     */
+    private static class Rule {
+        final Pattern pattern;
+        final boolean negated;
+        final boolean directoryOnly;
+        final boolean anchored;
+
+        private Rule(Pattern pattern, boolean negated, boolean directoryOnly, boolean anchored) {
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+            this.anchored = anchored;
+        }
+
+        static Rule parse(String line) {
+            String text = line.trim();
+            if (text.isEmpty() || text.startsWith("#")) {
+                return null;
+            }
+            boolean negated = text.startsWith("!");
+            if (negated) {
+                text = text.substring(1);
+            }
+            boolean directoryOnly = text.endsWith("/");
+            if (directoryOnly) {
+                text = text.substring(0, text.length() - 1);
+            }
+            boolean anchored = text.contains("/");
+            if (text.startsWith("/")) {
+                text = text.substring(1);
+            }
+            if (text.isEmpty()) {
+                return null;
+            }
+            return new Rule(Pattern.compile(toRegex(text)), negated, directoryOnly, anchored);
+        }
+
+        boolean matches(String pathFromBase, String name, boolean directory) {
+            if (directoryOnly && !directory) {
+                return false;
+            }
+            return pattern.matcher(anchored ? pathFromBase : name).matches();
+        }
+
+        /**
+         * Translates an ignore pattern into a regular expression in which {@code *} and
+         * {@code ?} stop at '/' and {@code **} crosses directories.
+         */
+        private static String toRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*') {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        i++;
+                        if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                            i++;
+                            regex.append("(?:.*/)?"); // "**/" matches zero or more directories
+                        } else {
+                            regex.append(".*");
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[') {
+                    int end = glob.indexOf(']', i + 2);
+                    if (end < 0) {
+                        regex.append("\\[");
+                    } else {
+                        String content = glob.substring(i + 1, end);
+                        if (content.startsWith("!")) {
+                            content = "^" + content.substring(1);
+                        }
+                        regex.append('[').append(content.replace("[", "\\[")).append(']');
+                        i = end;
+                    }
+                } else if (c == '\\' && i + 1 < glob.length()) {
+                    regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return regex.toString();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A process-wide registry of named counters and histograms, updated by the file search
+ * and permutation engines. Updates are lock-free and striped across threads, so recording
+ * can stay on in production; when disabled with {@link #setEnabled} or the system property
+ * {@code metrics.enabled=false}, instrumented code skips even the timing calls.
+ * <p>
+ * Metrics recorded by this project:
+ * <ul>
+ * <li>{@code filefinder.walks}, {@code filefinder.directories.listed},
+ *     {@code filefinder.entries.examined}: totals over all walks</li>
+ * <li>{@code filefinder.listing.nanos}: latency of each directory listing</li>
+ * <li>{@code filefinder.directories.per.second}: rate of each completed walk</li>
+ * <li>{@code permutations.generated}: total permutations returned</li>
+ * <li>{@code permutations.per.second}, {@code permutations.allocated.bytes.per.permutation},
+ *     {@code permutations.dedup.set.size}: one sample per generation</li>
+ * </ul>
+ */
+public final class Metrics {
+    private static final Map<String, Object> REGISTRY = new ConcurrentHashMap<>();
+    private static volatile boolean enabled =
+        Boolean.parseBoolean(System.getProperty("metrics.enabled", "true"));
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns whether metrics are being recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off. Values recorded so far are kept.
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Returns the counter with the given name, creating it on first use.
+     *
+     * @throws IllegalArgumentException if the name is taken by a histogram
+     */
+    public static Counter counter(String name) {
+        return register(name, Counter.class, new Counter());
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it on first use.
+     *
+     * @throws IllegalArgumentException if the name is taken by a counter
+     */
+    public static Histogram histogram(String name) {
+        return register(name, Histogram.class, new Histogram());
+    }
+
+    private static <T> T register(String name, Class<T> type, T created) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Metric name cannot be null or empty");
+        }
+        Object metric = REGISTRY.computeIfAbsent(name, key -> created);
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * Clears the values of all registered metrics.
+     */
+    public static void reset() {
+        for (Object metric : REGISTRY.values()) {
+            if (metric instanceof Counter) {
+                ((Counter) metric).reset();
+            } else {
+                ((Histogram) metric).reset();
+            }
+        }
+    }
+
+    /**
+     * Returns one line per metric, sorted by name.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Object> entry : new TreeMap<>(REGISTRY).entrySet()) {
+            if (report.length() > 0) {
+                report.append('\n');
+            }
+            report.append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return report.toString();
+    }
+
+    /**
+     * A monotonically increasing total.
+     */
+    public static class Counter {
+        private final LongAdder value = new LongAdder();
+
+        Counter() {
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        void reset() {
+            value.reset();
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(get());
+        }
+    }
+
+    /**
+     * A distribution of non-negative values in power-of-two buckets: bucket b holds the
+     * values that need b bits, so percentiles are accurate to within a factor of two.
+     */
+    public static class Histogram {
+        private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Adds a value; negative values are recorded as 0.
+         */
+        public void record(long value) {
+            long v = Math.max(0, value);
+            buckets[Math.min(Long.SIZE - Long.numberOfLeadingZeros(v), buckets.length - 1)].increment();
+            count.increment();
+            sum.add(v);
+            max.accumulate(v);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getSum() {
+            return sum.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public double getMean() {
+            long n = getCount();
+            return n == 0 ? 0 : (double) getSum() / n;
+        }
+
+        /**
+         * Returns an upper bound for the given percentile: the largest value of the bucket
+         * in which it falls.
+         *
+         * @param percentile A value from 0 to 100
+         * @throws IllegalArgumentException if percentile is out of range
+         */
+        public long getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+            }
+            long n = getCount();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+            long seen = 0;
+            for (int b = 0; b < buckets.length; b++) {
+                seen += buckets[b].sum();
+                if (seen >= rank) {
+                    return Math.min(b == 0 ? 0 : (1L << b) - 1, getMax());
+                }
+            }
+            return getMax();
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1f p50=%d p99=%d max=%d",
+                getCount(), getMean(), getPercentile(50), getPercentile(99), getMax());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * All distinct permutations of a string, held in lexicographic order as bit-packed symbol
+ * indexes in a single long array. Each character takes ceil(log2(k)) bits, where k is the
+ * number of distinct characters, so a 10-character permutation of distinct letters needs
+ * 5 bytes instead of a String object and a list slot of 60 bytes or more.
+ * <p>
+ * Elements are decoded into new Strings on access. contains and indexOf do not scan: since
+ * the list holds every permutation in order, the index of a permutation is its rank.
+ */
+public class PackedPermutationList extends AbstractList<CharSequence> implements RandomAccess {
+    private final char[] symbols;
+    private final int length;
+    private final int bitsPerSymbol;
+    private final int size;
+    private final long[] bits;
+
+    private PackedPermutationList(char[] symbols, int length, int size) {
+        this.symbols = symbols;
+        this.length = length;
+        this.bitsPerSymbol = Math.max(1, 32 - Integer.numberOfLeadingZeros(symbols.length - 1));
+        this.size = size;
+        long totalBits = (long) size * length * bitsPerSymbol;
+        if (totalBits > (long) (Integer.MAX_VALUE - 8) * Long.SIZE) {
+            throw new IllegalArgumentException("Too many permutations to store: " + size);
+        }
+        this.bits = new long[(int) ((totalBits + Long.SIZE - 1) / Long.SIZE)];
+    }
+
+    /**
+     * Generates and packs all distinct permutations of the input.
+     *
+     * @param input The string for which to generate permutations
+     * @return The packed permutations in lexicographic order
+     * @throws IllegalArgumentException if input is null or has more than Integer.MAX_VALUE permutations
+     */
+    public static PackedPermutationList of(String input) {
+        BigInteger count = PermutationRanking.count(input);
+        if (count.bitLength() >= Integer.SIZE) {
+            throw new IllegalArgumentException("Too many permutations to store: " + count);
+        }
+        char[] sorted = input.toCharArray();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        char[] unique = new char[Math.max(1, sorted.length)];
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                unique[distinct++] = sorted[i];
+            }
+        }
+
+        PackedPermutationList list = new PackedPermutationList(
+            Arrays.copyOf(unique, Math.max(1, distinct)), input.length(), count.intValue());
+        long[] position = new long[1];
+        new PermutationIterator(input).forEachView(permutation -> {
+            for (char c : permutation) {
+                list.write(position[0], list.symbolIndex(c));
+                position[0] += list.bitsPerSymbol;
+            }
+        });
+        return list;
+    }
+
+    @Override
+    public CharSequence get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        char[] permutation = new char[length];
+        long position = (long) index * length * bitsPerSymbol;
+        for (int i = 0; i < length; i++) {
+            permutation[i] = symbols[read(position)];
+            position += bitsPerSymbol;
+        }
+        return new String(permutation);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof CharSequence) || !isPermutation((CharSequence) o)) {
+            return -1;
+        }
+        return PermutationRanking.rank(o.toString()).intValueExact();
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o); // Elements are distinct
+    }
+
+    /**
+     * Returns the number of bytes used to hold the packed permutations.
+     */
+    public long getStorageBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    /**
+     * Checks whether the sequence uses exactly the characters of this list's input.
+     */
+    private boolean isPermutation(CharSequence sequence) {
+        if (sequence.length() != length) {
+            return false;
+        }
+        int[] remaining = new int[symbols.length];
+        long position = 0;
+        // Every stored permutation holds the same multiset; count it from the first one
+        for (int i = 0; i < length; i++) {
+            remaining[read(position)]++;
+            position += bitsPerSymbol;
+        }
+        for (int i = 0; i < sequence.length(); i++) {
+            int s = Arrays.binarySearch(symbols, sequence.charAt(i));
+            if (s < 0 || --remaining[s] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int symbolIndex(char c) {
+        return Arrays.binarySearch(symbols, c);
+    }
+
+    private void write(long position, int value) {
+        int word = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        bits[word] |= (long) value << offset;
+        int spill = offset + bitsPerSymbol - Long.SIZE;
+        if (spill > 0) {
+            bits[word + 1] |= (long) value >>> (bitsPerSymbol - spill);
+        }
+    }
+
+    private int read(long position) {
+        int word = (int) (position >>> 6);
+        int offset = (int) (position & 63);
+        long value = bits[word] >>> offset;
+        int spill = offset + bitsPerSymbol - Long.SIZE;
+        if (spill > 0) {
+            value |= bits[word + 1] << (bitsPerSymbol - spill);
+        }
+        return (int) (value & ((1L << bitsPerSymbol) - 1));
+    }
+}
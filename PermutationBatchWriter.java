@@ -0,0 +1,273 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes the permutations of many inputs, one input per line of a reader, to a byte channel.
+ * Each input is written as a header line "# input (count)" followed by its permutations in
+ * lexicographic order, one per line, and inputs appear in the order they were read.
+ * <p>
+ * The rank space of every input is cut into chunks of about a megabyte that worker threads
+ * unrank and encode into byte arrays in parallel, so that both many short inputs and one long
+ * input keep every worker busy. Chunks run on a pool shared by all writers, with at most
+ * {@code parallelism} of them being encoded at once for each batch. The calling thread reads
+ * inputs, submits chunks and writes finished chunks in submission order; at most a few chunks
+ * per worker are in flight, so memory stays bounded however much is written. Lines are
+ * encoded directly to bytes, without formatting or a synchronized stream.
+ */
+public class PermutationBatchWriter {
+    private static final int TARGET_CHUNK_BYTES = 1 << 20;
+    // Chunks in flight per worker thread, so that workers are not idle while one chunk is written
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private long limitPerInput = Long.MAX_VALUE;
+
+    /**
+     * Creates a writer that encodes with one thread per available processor.
+     */
+    public PermutationBatchWriter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a writer that encodes with up to the given number of threads of the shared
+     * pool, which has one thread per available processor.
+     *
+     * @param parallelism How many chunks are encoded at once, at most
+     * @throws IllegalArgumentException if parallelism is not positive
+     */
+    public PermutationBatchWriter(int parallelism) {
+        this(EncoderExecutorHolder.EXECUTOR, parallelism);
+    }
+
+    /**
+     * Creates a writer that encodes on the given executor.
+     *
+     * @param executor Runs the encoding; it is not shut down
+     * @param parallelism How many chunks are encoded at once, at most
+     * @throws IllegalArgumentException if executor is null or parallelism is not positive
+     */
+    public PermutationBatchWriter(ExecutorService executor, int parallelism) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Lazily created pool shared by all writers. The threads are daemons, so an idle pool
+     * never keeps the JVM alive.
+     */
+    private static class EncoderExecutorHolder {
+        static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "permutation-batch-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Limits how many permutations are written for each input; the first ones in
+     * lexicographic order are kept. The header still shows the full count. A limit is
+     * required for inputs with more than Long.MAX_VALUE permutations.
+     *
+     * @param limit The maximum number of permutations per input
+     * @return This writer
+     * @throws IllegalArgumentException if limit is negative
+     */
+    public PermutationBatchWriter limitPerInput(long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+        }
+        this.limitPerInput = limit;
+        return this;
+    }
+
+    /**
+     * Reads inputs until the end of the reader and writes their permutations. Blank lines
+     * are skipped. Neither the reader nor the channel is closed.
+     *
+     * @param inputs One input string per line
+     * @param output Where to write the results
+     * @return Counters and throughput of the batch
+     * @throws IllegalArgumentException if inputs or output is null, or an input has more
+     *         than Long.MAX_VALUE permutations and no limit was set; inputs before it have
+     *         been written
+     * @throws IOException if reading or writing fails
+     */
+    public BatchResult write(BufferedReader inputs, WritableByteChannel output) throws IOException {
+        if (inputs == null || output == null) {
+            throw new IllegalArgumentException("Inputs and output cannot be null");
+        }
+        long startTime = System.nanoTime();
+        long inputCount = 0;
+        long lines = 0;
+        long bytes = 0;
+        // Permits for chunks submitted but not yet encoded, taken by this thread and returned
+        // by the workers, so that the shared pool never blocks
+        Semaphore permits = new Semaphore(parallelism);
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        try {
+            String input;
+            while ((input = inputs.readLine()) != null) {
+                if (input.isEmpty()) {
+                    continue;
+                }
+                inputCount++;
+                char[] sorted = input.toCharArray();
+                Arrays.sort(sorted);
+                long count = PermutationIterator.countOrNegative(sorted);
+                if (count < 0 && limitPerInput == Long.MAX_VALUE) {
+                    while (!pending.isEmpty()) {
+                        bytes += writeFully(output, pending.poll());
+                    }
+                    throw new IllegalArgumentException(
+                        "Input has more than Long.MAX_VALUE permutations; set a limit per input: " + input);
+                }
+                long written = count < 0 ? limitPerInput : Math.min(count, limitPerInput);
+                byte[] header = ("# " + input + " (" + PermutationRanking.count(input) + ")\n")
+                    .getBytes(StandardCharsets.UTF_8);
+                PermutationExporter.Encoding encoding =
+                    new PermutationExporter.Encoding(sorted, PermutationExporter.Format.TEXT);
+                long perChunk = Math.max(1, TARGET_CHUNK_BYTES / (encoding.recordBits / 8));
+
+                pending.add(CompletableFuture.completedFuture(header));
+                for (long first = 0; first < written; first += perChunk) {
+                    long from = first;
+                    int size = (int) Math.min(perChunk, written - first);
+                    boolean longRanks = count >= 0;
+                    acquire(permits);
+                    pending.add(submitChunk(permits, () -> encodeChunk(encoding, sorted, longRanks, from, size)));
+                    while (pending.size() > parallelism * CHUNKS_PER_THREAD) {
+                        bytes += writeFully(output, pending.poll());
+                    }
+                }
+                lines += 1 + written;
+            }
+            while (!pending.isEmpty()) {
+                bytes += writeFully(output, pending.poll());
+            }
+        } finally {
+            for (Future<byte[]> chunk : pending) {
+                chunk.cancel(true);
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        return new BatchResult(inputCount, lines, bytes, seconds);
+    }
+
+    private Future<byte[]> submitChunk(Semaphore permits, Callable<byte[]> chunk) {
+        return executor.submit(() -> {
+            try {
+                return chunk.call();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private static void acquire(Semaphore permits) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while encoding permutations", e);
+        }
+    }
+
+    /**
+     * Encodes the permutations with ranks first to first + size - 1.
+     *
+     * @param longRanks Whether the permutation count fits in a long; otherwise the first
+     *        permutation is unranked with BigInteger arithmetic
+     */
+    private static byte[] encodeChunk(PermutationExporter.Encoding encoding, char[] sorted, boolean longRanks,
+                                      long first, int size) {
+        ByteBuffer buffer = ByteBuffer.allocate((int) encoding.bytes(size));
+        char[] permutation = longRanks
+            ? PermutationSpliterator.unrank(sorted, first)
+            : PermutationRanking.unrank(new String(sorted), BigInteger.valueOf(first)).toCharArray();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                PermutationIterator.nextPermutation(permutation);
+            }
+            encoding.encode(permutation, buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Waits for a chunk and writes all of it.
+     *
+     * @return The number of bytes written
+     */
+    private static long writeFully(WritableByteChannel output, Future<byte[]> chunk) throws IOException {
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(chunk.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while encoding permutations", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        long written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            output.write(buffer);
+        }
+        return written;
+    }
+
+    /**
+     * Outcome of one batch.
+     */
+    public static class BatchResult {
+        public final long inputCount;
+        public final long lineCount;
+        public final long bytesWritten;
+        public final double seconds;
+
+        public BatchResult(long inputCount, long lineCount, long bytesWritten, double seconds) {
+            this.inputCount = inputCount;
+            this.lineCount = lineCount;
+            this.bytesWritten = bytesWritten;
+            this.seconds = seconds;
+        }
+
+        /**
+         * Returns the number of lines written per second, headers included.
+         */
+        public double getLinesPerSecond() {
+            return seconds > 0 ? lineCount / seconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Inputs: %d\nLines written: %d\nBytes written: %d\nTime: %.2f s\nThroughput: %.0f lines/s",
+                inputCount, lineCount, bytesWritten, seconds, getLinesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * A bounded, thread-safe cache of generated permutations. The permutations of a string
+ * depend only on its multiset of characters, so entries are keyed by the sorted characters
+ * and anagrams such as "listen" and "silent" share one entry. Results are lists in
+ * lexicographic order, which is the same for every anagram, so a cached list is returned
+ * to any caller as is.
+ * <p>
+ * Each entry weighs its number of permutations times their length, roughly the characters
+ * it holds. When the total weight exceeds the limit, least recently used entries are
+ * evicted. With soft values the garbage collector may also reclaim entries under memory
+ * pressure; a reclaimed entry is regenerated on the next request.
+ */
+public class PermutationCache {
+    private final long maxWeight;
+    private final boolean softValues;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long collected;
+
+    /**
+     * Creates a cache that holds at most the given weight with strong references.
+     *
+     * @param maxWeight Maximum total weight, in permutations times their length
+     * @throws IllegalArgumentException if maxWeight is negative
+     */
+    public PermutationCache(long maxWeight) {
+        this(maxWeight, false);
+    }
+
+    /**
+     * Creates a cache that holds at most the given weight.
+     *
+     * @param maxWeight Maximum total weight, in permutations times their length
+     * @param softValues Whether to hold results through soft references
+     * @throws IllegalArgumentException if maxWeight is negative
+     */
+    public PermutationCache(long maxWeight, boolean softValues) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight cannot be negative");
+        }
+        this.maxWeight = maxWeight;
+        this.softValues = softValues;
+    }
+
+    /**
+     * Returns the distinct permutations of the input in lexicographic order, generating
+     * them only if neither the input nor an anagram of it is cached.
+     *
+     * @param input The string for which to generate permutations
+     * @return Unmodifiable list of the permutations
+     * @throws IllegalArgumentException if input is null
+     */
+    public List<String> get(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        String key = key(input);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                List<String> cached = entry.get();
+                if (cached != null) {
+                    hits++;
+                    return cached;
+                }
+                remove(key, entry);
+                collected++;
+            }
+            misses++;
+        }
+
+        // Generate outside the lock so that other inputs are not held up
+        List<String> permutations = Collections.unmodifiableList(
+            new PermutationIterator(input).stream().collect(Collectors.toList()));
+        long entryWeight = (long) permutations.size() * Math.max(1, input.length());
+        if (entryWeight <= maxWeight) {
+            synchronized (this) {
+                Entry previous = entries.put(key, new Entry(permutations, entryWeight, softValues));
+                if (previous != null) {
+                    weight -= previous.weight;
+                }
+                weight += entryWeight;
+                evictOverflow();
+            }
+        }
+        return permutations;
+    }
+
+    /**
+     * Removes all entries. Metrics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().getValue().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.remove(key);
+        weight -= entry.weight;
+    }
+
+    private static String key(String input) {
+        char[] chars = input.toCharArray();
+        Arrays.sort(chars);
+        return new String(chars);
+    }
+
+    /** Returns the number of requests answered from the cache. */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Returns the number of requests that generated permutations. */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Returns the number of entries evicted to stay within the weight limit. */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /** Returns the number of soft entries found reclaimed by the garbage collector. */
+    public synchronized long getCollected() {
+        return collected;
+    }
+
+    /** Returns the fraction of requests answered from the cache, or 0 before any request. */
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    /** Returns the number of cached entries, including soft ones not yet found reclaimed. */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /** Returns the total weight of the cached entries. */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+            "Entries: %d\nWeight: %d of %d\nHits: %d\nMisses: %d\nHit rate: %.1f%%\nEvictions: %d\nCollected: %d",
+            entries.size(), weight, maxWeight, hits, misses, getHitRate() * 100, evictions, collected
+        );
+    }
+
+    /**
+     * A cached result, held strongly or softly.
+     */
+    private static class Entry {
+        private final List<String> strong;
+        private final SoftReference<List<String>> soft;
+        final long weight;
+
+        Entry(List<String> permutations, long weight, boolean softValue) {
+            this.strong = softValue ? null : permutations;
+            this.soft = softValue ? new SoftReference<>(permutations) : null;
+            this.weight = weight;
+        }
+
+        List<String> get() {
+            return strong != null ? strong : soft.get();
+        }
+    }
+}
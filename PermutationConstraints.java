@@ -0,0 +1,175 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Constraints on the permutations reported by
+ * {@link StringPermutationsRecursive#search(String, PermutationConstraints)}.
+ * They are checked as each character is placed, so a partial permutation that already
+ * violates one is never extended.
+ * <pre>
+ * PermutationConstraints constraints = new PermutationConstraints()
+ *     .prefix("st")
+ *     .mask("??a??")
+ *     .forbidAdjacent('a', 'e')
+ *     .dictionary(words);
+ * </pre>
+ */
+public class PermutationConstraints {
+    private String prefix = "";
+    private String suffix = "";
+    private String mask = "";
+    private final Set<Long> forbiddenPairs = new HashSet<>();
+    private TrieNode dictionary;
+
+    /**
+     * Returns constraints that accept every permutation.
+     */
+    public static PermutationConstraints none() {
+        return new PermutationConstraints();
+    }
+
+    /**
+     * Only reports permutations that start with the given string.
+     *
+     * @return These constraints
+     * @throws IllegalArgumentException if prefix is null
+     */
+    public PermutationConstraints prefix(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix cannot be null");
+        }
+        this.prefix = prefix;
+        return this;
+    }
+
+    /**
+     * Only reports permutations that end with the given string.
+     *
+     * @return These constraints
+     * @throws IllegalArgumentException if suffix is null
+     */
+    public PermutationConstraints suffix(String suffix) {
+        if (suffix == null) {
+            throw new IllegalArgumentException("Suffix cannot be null");
+        }
+        this.suffix = suffix;
+        return this;
+    }
+
+    /**
+     * Fixes characters at given positions. Each '?' in the mask matches any character;
+     * any other character must appear at that position. A mask shorter than the input
+     * leaves the remaining positions free.
+     *
+     * @param mask The positional mask, e.g. {@code "?a??e"}
+     * @return These constraints
+     * @throws IllegalArgumentException if mask is null
+     */
+    public PermutationConstraints mask(String mask) {
+        if (mask == null) {
+            throw new IllegalArgumentException("Mask cannot be null");
+        }
+        this.mask = mask;
+        return this;
+    }
+
+    /**
+     * Rejects permutations in which the first character is immediately followed by the second.
+     *
+     * @return These constraints
+     */
+    public PermutationConstraints forbidAdjacent(char first, char second) {
+        forbiddenPairs.add(pairKey(first, second));
+        return this;
+    }
+
+    /**
+     * Only reports permutations that are words of the dictionary. The words are loaded
+     * into a trie, so a partial permutation that is not the start of any word is abandoned
+     * at once.
+     *
+     * @param words The allowed words
+     * @return These constraints
+     * @throws IllegalArgumentException if words is null or contains null
+     */
+    public PermutationConstraints dictionary(Collection<String> words) {
+        if (words == null) {
+            throw new IllegalArgumentException("Dictionary cannot be null");
+        }
+        TrieNode root = new TrieNode();
+        for (String word : words) {
+            if (word == null) {
+                throw new IllegalArgumentException("Dictionary words cannot be null");
+            }
+            TrieNode node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.children.computeIfAbsent(word.charAt(i), c -> new TrieNode());
+            }
+            node.word = true;
+        }
+        this.dictionary = root;
+        return this;
+    }
+
+    /**
+     * Returns the character required at each position of a permutation of the given
+     * length, or -1 where any character is allowed.
+     *
+     * @return The required characters, or null if the constraints contradict each other
+     */
+    int[] fixedPositions(int length) {
+        if (prefix.length() > length || suffix.length() > length) {
+            return null;
+        }
+        int[] fixed = new int[length];
+        Arrays.fill(fixed, -1);
+        for (int i = 0; i < Math.min(mask.length(), length); i++) {
+            if (mask.charAt(i) != '?' && !fix(fixed, i, mask.charAt(i))) {
+                return null;
+            }
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (!fix(fixed, i, prefix.charAt(i))) {
+                return null;
+            }
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (!fix(fixed, length - suffix.length() + i, suffix.charAt(i))) {
+                return null;
+            }
+        }
+        return fixed;
+    }
+
+    private static boolean fix(int[] fixed, int position, char c) {
+        if (fixed[position] >= 0 && fixed[position] != c) {
+            return false;
+        }
+        fixed[position] = c;
+        return true;
+    }
+
+    boolean isForbidden(char first, char second) {
+        return !forbiddenPairs.isEmpty() && forbiddenPairs.contains(pairKey(first, second));
+    }
+
+    TrieNode getDictionary() {
+        return dictionary;
+    }
+
+    private static long pairKey(char first, char second) {
+        return ((long) first << 16) | second;
+    }
+
+    /**
+     * A node of the dictionary trie.
+     */
+    static class TrieNode {
+        final Map<Character, TrieNode> children = new HashMap<>();
+        boolean word;
+    }
+}
@@ -0,0 +1,250 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+/**
+ * Streams the distinct permutations of a string straight into a file, in lexicographic
+ * order, without building a list first. Every permutation of a string encodes to the same
+ * number of bits, so the position of each one in the file follows from its rank. The rank
+ * space is cut into chunks that are unranked, encoded into a per-thread buffer and written
+ * with positional writes in parallel; memory use is one buffer per worker thread.
+ * <p>
+ * Binary layout: the magic number "PERM", the permutation length (int), the number of
+ * distinct characters (int), those characters in sorted order (2 bytes each), the
+ * permutation count (long), then the records. Each position of a permutation is stored as
+ * the index of its character in the sorted table, in ceil(log2(distinct)) bits (at least
+ * one), and records follow each other without padding. Bits fill each byte from the least
+ * significant one up, so symbol i of record r starts at bit (r * length + i) * bitsPerSymbol
+ * after the header; only the last byte of the file may be partly unused.
+ */
+public class PermutationExporter {
+    private static final int MAGIC = 0x5045524D; // "PERM"
+    private static final int TARGET_CHUNK_BYTES = 1 << 20;
+
+    /**
+     * Output encodings.
+     */
+    public enum Format {
+        /** One permutation per line, UTF-8. */
+        TEXT,
+        /** Fixed-width records of bit-packed symbol indexes, after a header. */
+        BINARY
+    }
+
+    private PermutationExporter() {
+    }
+
+    /**
+     * Writes every distinct permutation of the input to the file, replacing its contents.
+     *
+     * @param input The string for which to generate permutations
+     * @param output The file to write
+     * @param format The encoding to use
+     * @return The number of permutations and bytes written, and the time taken
+     * @throws IllegalArgumentException if an argument is null, there are more than
+     *         Long.MAX_VALUE permutations
+     * @throws IOException if the file cannot be written
+     */
+    public static ExportResult export(String input, Path output, Format format) throws IOException {
+        if (output == null || format == null) {
+            throw new IllegalArgumentException("Output and format cannot be null");
+        }
+        PermutationSpliterator all = new PermutationSpliterator(input);
+        long count = all.estimateSize();
+        char[] sorted = input.toCharArray();
+        Arrays.sort(sorted);
+        Encoding encoding = new Encoding(sorted, format);
+
+        long startTime = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = encoding.header(count);
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+
+            // Chunks hold a multiple of 8 records so that every one starts on a byte boundary
+            long perChunk = Math.max(8, TARGET_CHUNK_BYTES / Math.max(1, encoding.recordBits) * 8);
+            long chunks = (count + perChunk - 1) / perChunk;
+            ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(
+                () -> ByteBuffer.allocateDirect((int) encoding.bytes(perChunk)));
+            try {
+                LongStream.range(0, chunks).parallel().forEach(chunk -> {
+                    long first = chunk * perChunk;
+                    long size = Math.min(perChunk, count - first);
+                    writeChunk(channel, buffers.get(), encoding, sorted, first, size);
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        long bytes = encoding.headerSize + encoding.bytes(count);
+        return new ExportResult(count, bytes, seconds);
+    }
+
+    private static void writeChunk(FileChannel channel, ByteBuffer buffer, Encoding encoding,
+                                   char[] sorted, long first, long size) {
+        buffer.clear();
+        char[] permutation = PermutationSpliterator.unrank(sorted, first);
+        long pending = 0;
+        int pendingBits = 0;
+        for (long i = 0; i < size; i++) {
+            if (i > 0) {
+                PermutationIterator.nextPermutation(permutation);
+            }
+            if (encoding.format == Format.TEXT) {
+                encoding.encode(permutation, buffer);
+                continue;
+            }
+            for (char c : permutation) {
+                pending |= (long) encoding.symbolIndex(c) << pendingBits;
+                pendingBits += encoding.bitsPerSymbol;
+                while (pendingBits >= 8) {
+                    buffer.put((byte) pending);
+                    pending >>>= 8;
+                    pendingBits -= 8;
+                }
+            }
+        }
+        if (pendingBits > 0) {
+            buffer.put((byte) pending);
+        }
+        buffer.flip();
+        long position = encoding.headerSize + encoding.bytes(first);
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Maps each distinct character to its bytes in the chosen format. Also used by
+     * {@link PermutationBatchWriter}.
+     */
+    static class Encoding {
+        final char[] symbols;
+        final byte[][] symbolBytes;
+        final Format format;
+        // Bits of one symbol index in BINARY records
+        final int bitsPerSymbol;
+        // Bits of one record; TEXT records are always whole bytes
+        final int recordBits;
+        final int headerSize;
+
+        Encoding(char[] sorted, Format format) {
+            this.format = format;
+            int distinct = 0;
+            char[] unique = new char[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    unique[distinct++] = sorted[i];
+                }
+            }
+            this.symbols = Arrays.copyOf(unique, distinct);
+            this.symbolBytes = new byte[distinct][];
+
+            if (format == Format.BINARY) {
+                this.bitsPerSymbol = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(1, distinct) - 1));
+                this.recordBits = sorted.length * bitsPerSymbol;
+                this.headerSize = 4 + 4 + 4 + 2 * distinct + 8;
+            } else {
+                // Encoding each character on its own keeps every line the same length
+                int size = 1;
+                for (int s = 0; s < distinct; s++) {
+                    symbolBytes[s] = String.valueOf(symbols[s]).getBytes(StandardCharsets.UTF_8);
+                }
+                for (char c : sorted) {
+                    size += symbolBytes[Arrays.binarySearch(symbols, c)].length;
+                }
+                this.bitsPerSymbol = 0;
+                this.recordBits = 8 * size;
+                this.headerSize = 0;
+            }
+        }
+
+        ByteBuffer header(long count) {
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            if (format == Format.BINARY) {
+                header.putInt(MAGIC).putInt(recordBits / bitsPerSymbol).putInt(symbols.length);
+                for (char symbol : symbols) {
+                    header.putChar(symbol);
+                }
+                header.putLong(count);
+            }
+            header.flip();
+            return header;
+        }
+
+        /**
+         * Returns the bytes taken by the given number of records, the last one rounded up.
+         * Also the offset after the header of a record whose rank is a multiple of 8.
+         */
+        long bytes(long records) {
+            return records / 8 * recordBits + ((records % 8) * recordBits + 7) / 8;
+        }
+
+        /**
+         * Appends one line of the TEXT format.
+         */
+        void encode(char[] permutation, ByteBuffer buffer) {
+            for (char c : permutation) {
+                byte[] bytes = symbolBytes[symbolIndex(c)];
+                if (bytes.length == 1) {
+                    buffer.put(bytes[0]);
+                } else {
+                    buffer.put(bytes);
+                }
+            }
+            buffer.put((byte) '\n');
+        }
+
+        int symbolIndex(char c) {
+            // Symbol tables are tiny; a linear scan beats binary search here
+            for (int s = 0; s < symbols.length; s++) {
+                if (symbols[s] == c) {
+                    return s;
+                }
+            }
+            throw new IllegalStateException("Unknown character: " + c);
+        }
+    }
+
+    /**
+     * Outcome of one export.
+     */
+    public static class ExportResult {
+        public final long permutationCount;
+        public final long bytesWritten;
+        public final double seconds;
+
+        public ExportResult(long permutationCount, long bytesWritten, double seconds) {
+            this.permutationCount = permutationCount;
+            this.bytesWritten = bytesWritten;
+            this.seconds = seconds;
+        }
+
+        /**
+         * Returns the write throughput in megabytes (10^6 bytes) per second.
+         */
+        public double getMegabytesPerSecond() {
+            return seconds > 0 ? bytesWritten / 1_000_000.0 / seconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Exported %d permutations\nBytes written: %d\nTime: %.2f s\nThroughput: %.1f MB/s",
+                permutationCount, bytesWritten, seconds, getMegabytesPerSecond());
+        }
+    }
+}
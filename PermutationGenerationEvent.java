@@ -0,0 +1,35 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one call that generates a full list of permutations.
+ */
+@Name("permutations.Generation")
+@Label("Permutation Generation")
+@Category({ "Permutations" })
+@Description("Generating all distinct permutations of a string")
+class PermutationGenerationEvent extends jdk.jfr.Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Input Length")
+    int inputLength;
+
+    @Label("Permutations")
+    long permutations;
+
+    @Label("Arrangements Produced")
+    @Description("Permutations produced before duplicates were removed")
+    long arrangements;
+
+    @Label("Dedup Set Size")
+    @Description("Entries in the set used to remove duplicates, or 0 when no set was needed")
+    long dedupSetSize;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,66 @@
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A strategy for generating the distinct permutations of a string. Implementations are
+ * registered in {@link PermutationGenerators}, which can also pick one for a given input.
+ */
+public interface PermutationGenerator {
+
+    /**
+     * How the caller intends to consume the permutations.
+     */
+    enum OutputMode {
+        /** Only the number of permutations is needed. */
+        COUNT,
+        /** Permutations are consumed one at a time. */
+        STREAM,
+        /** All permutations are needed in memory at once. */
+        LIST
+    }
+
+    /**
+     * Returns the name under which this generator is registered.
+     */
+    String getName();
+
+    /**
+     * Generates all distinct permutations of the input.
+     *
+     * @param input The string for which to generate permutations
+     * @return List of all distinct permutations
+     * @throws IllegalArgumentException if input is null
+     */
+    List<String> generate(String input);
+
+    /**
+     * Returns the distinct permutations of the input as a stream. The default
+     * implementation materialises the list first.
+     *
+     * @param input The string for which to generate permutations
+     * @return Stream of all distinct permutations
+     * @throws IllegalArgumentException if input is null
+     */
+    default Stream<String> stream(String input) {
+        return generate(input).stream();
+    }
+
+    /**
+     * Counts the distinct permutations of the input. The default implementation uses the
+     * multinomial formula and generates nothing; generators may override it to count by
+     * enumerating.
+     *
+     * @param input The string for which to count permutations
+     * @return The number of distinct permutations
+     * @throws IllegalArgumentException if input is null or has more than Long.MAX_VALUE
+     *         permutations; use {@link PermutationRanking#count} for those
+     */
+    default long count(String input) {
+        BigInteger count = PermutationRanking.count(input);
+        if (count.bitLength() >= Long.SIZE) {
+            throw new IllegalArgumentException("Too many permutations to count in a long: " + count);
+        }
+        return count.longValue();
+    }
+}
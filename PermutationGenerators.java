@@ -0,0 +1,178 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Registry of permutation generators, with an adaptive selector that picks one from the
+ * number of permutations, whether any character repeats and how the output is consumed.
+ * <p>
+ * Built-in generators: {@code recursive} (prefix + substring recursion), {@code swap}
+ * (recursive swapping), {@code heap} (Heap's algorithm), {@code lexicographic}
+ * (next-permutation), {@code parallel} (rank-splitting fork-join), {@code visitor}
+ * (allocation-free iterative swapping) and {@code closed-form}, which generates
+ * lexicographically but counts with the multinomial formula instead of enumerating. The
+ * counts of {@code lexicographic}, {@code parallel} and {@code visitor} walk every
+ * permutation, so that they measure their own enumeration; the others count in closed form.
+ */
+public final class PermutationGenerators {
+    /** Number of permutations above which the parallel generator is selected for LIST. */
+    static final long PARALLEL_THRESHOLD = 100_000;
+
+    private static final Map<String, PermutationGenerator> REGISTRY = new LinkedHashMap<>();
+
+    static {
+        StringPermutationsRecursive engine = new StringPermutationsRecursive();
+        register(new Builtin("recursive", engine::generatePermutations, null, null));
+        register(new Builtin("swap", engine::generatePermutationsWithSwap, null, null));
+        register(new Builtin("heap", engine::generatePermutationsWithHeap, null, null));
+        register(new Builtin("lexicographic",
+            input -> engine.lexicographicStream(input).collect(Collectors.toList()),
+            engine::lexicographicStream,
+            input -> {
+                long[] count = new long[1];
+                engine.lexicographicIterator(input).forEachView(view -> count[0]++);
+                return count[0];
+            }));
+        register(new Builtin("parallel",
+            input -> engine.parallelStream(input).collect(Collectors.toList()),
+            engine::parallelStream,
+            input -> engine.analyze(input, view -> true).getExamined()));
+        register(new Builtin("visitor",
+            input -> {
+                List<String> result = new ArrayList<>();
+                engine.visitPermutations(input, view -> result.add(new String(view)));
+                return result;
+            },
+            null,
+            input -> engine.visitPermutations(input, view -> true)));
+        register(new Builtin("closed-form",
+            input -> engine.lexicographicStream(input).collect(Collectors.toList()),
+            engine::lexicographicStream,
+            null));
+    }
+
+    private PermutationGenerators() {
+    }
+
+    /**
+     * Adds a generator, replacing any registered under the same name.
+     *
+     * @param generator The generator to add
+     * @throws IllegalArgumentException if generator or its name is null
+     */
+    public static synchronized void register(PermutationGenerator generator) {
+        if (generator == null || generator.getName() == null) {
+            throw new IllegalArgumentException("Generator and its name cannot be null");
+        }
+        REGISTRY.put(generator.getName(), generator);
+    }
+
+    /**
+     * Returns the generator registered under the given name.
+     *
+     * @throws IllegalArgumentException if no generator has that name
+     */
+    public static synchronized PermutationGenerator get(String name) {
+        PermutationGenerator generator = REGISTRY.get(name);
+        if (generator == null) {
+            throw new IllegalArgumentException("Unknown permutation generator: " + name);
+        }
+        return generator;
+    }
+
+    /**
+     * Returns all registered generators in registration order.
+     */
+    public static synchronized List<PermutationGenerator> all() {
+        return new ArrayList<>(REGISTRY.values());
+    }
+
+    /**
+     * Picks the generator best suited to the input and output mode:
+     * <ul>
+     * <li>COUNT: {@code closed-form}, which counts without generating anything</li>
+     * <li>STREAM: {@code lexicographic}, which is lazy and sequential, so the consumer sees
+     *     one permutation at a time on the calling thread</li>
+     * <li>LIST with more than {@value #PARALLEL_THRESHOLD} permutations: {@code parallel}; the
+     *     list is assembled in order, so concurrency is not visible to the caller</li>
+     * <li>LIST without repeated characters: {@code heap}, one swap per permutation and no set</li>
+     * <li>LIST with repeated characters: {@code lexicographic}, which never produces duplicates</li>
+     * </ul>
+     * LIST inputs with more than Long.MAX_VALUE permutations get {@code lexicographic}, the
+     * only generator that can start on them.
+     *
+     * @param input The string for which to generate permutations
+     * @param mode How the permutations will be consumed
+     * @return The selected generator
+     * @throws IllegalArgumentException if input or mode is null
+     */
+    public static PermutationGenerator select(String input, PermutationGenerator.OutputMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Output mode cannot be null");
+        }
+        BigInteger total = PermutationRanking.count(input);
+        if (mode == PermutationGenerator.OutputMode.COUNT) {
+            return get("closed-form");
+        }
+        if (mode == PermutationGenerator.OutputMode.STREAM || total.bitLength() >= Long.SIZE) {
+            return get("lexicographic");
+        }
+        if (total.longValue() > PARALLEL_THRESHOLD) {
+            return get("parallel");
+        }
+        return hasRepeatedCharacters(input) ? get("lexicographic") : get("heap");
+    }
+
+    private static boolean hasRepeatedCharacters(String input) {
+        return input.chars().distinct().count() < input.length();
+    }
+
+    /**
+     * A generator assembled from methods of StringPermutationsRecursive.
+     */
+    private static class Builtin implements PermutationGenerator {
+        private final String name;
+        private final Function<String, List<String>> list;
+        private final Function<String, Stream<String>> stream;
+        private final ToLongFunction<String> count;
+
+        Builtin(String name, Function<String, List<String>> list,
+                Function<String, Stream<String>> stream, ToLongFunction<String> count) {
+            this.name = name;
+            this.list = list;
+            this.stream = stream;
+            this.count = count;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public List<String> generate(String input) {
+            return list.apply(input);
+        }
+
+        @Override
+        public Stream<String> stream(String input) {
+            return stream != null ? stream.apply(input) : PermutationGenerator.super.stream(input);
+        }
+
+        @Override
+        public long count(String input) {
+            return count != null ? count.applyAsLong(input) : PermutationGenerator.super.count(input);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily generates the distinct permutations of a string in lexicographic order.
+ * Each step rearranges a single char array in place (the classic next-permutation
+ * algorithm), so repeated characters never produce duplicates and no set of earlier
+ * results is kept. Memory use is O(n) regardless of how many permutations there are.
+ * Time Complexity: amortized O(1) per step, plus O(n) to copy each emitted String
+ */
+public class PermutationIterator implements Iterator<String> {
+    private final char[] chars;
+    private boolean pending;
+
+    /**
+     * Creates an iterator positioned before the smallest permutation of the input.
+     *
+     * @param input The string for which to generate permutations
+     * @throws IllegalArgumentException if input is null
+     */
+    public PermutationIterator(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        this.chars = input.toCharArray();
+        Arrays.sort(chars);
+        this.pending = true;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pending;
+    }
+
+    @Override
+    public String next() {
+        if (!pending) {
+            throw new NoSuchElementException();
+        }
+        String result = new String(chars);
+        pending = nextPermutation(chars);
+        return result;
+    }
+
+    /**
+     * Passes each remaining permutation to the action as a view of the internal char array,
+     * without allocating. The array is only valid during the call and must not be modified.
+     *
+     * @param action Receives each permutation in lexicographic order
+     */
+    public void forEachView(Consumer<char[]> action) {
+        while (pending) {
+            action.accept(chars);
+            pending = nextPermutation(chars);
+        }
+    }
+
+    /**
+     * Returns the remaining permutations as a sorted, distinct, sequential stream.
+     */
+    public Stream<String> stream() {
+        long size = pending ? PermutationIterator.countOrNegative(chars) : 0;
+        int characteristics = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED
+            | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        Spliterator<String> spliterator = size >= 0 && isFirstPermutation()
+            ? Spliterators.spliterator(this, size, characteristics)
+            : Spliterators.spliteratorUnknownSize(this, characteristics);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    private boolean isFirstPermutation() {
+        for (int i = 1; i < chars.length; i++) {
+            if (chars[i - 1] > chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rearranges the array into the next greater permutation.
+     *
+     * @param chars The current permutation, rearranged in place
+     * @return false if the array was already the greatest permutation and is unchanged
+     */
+    static boolean nextPermutation(char[] chars) {
+        // Find the rightmost position whose character can still grow
+        int i = chars.length - 2;
+        while (i >= 0 && chars[i] >= chars[i + 1]) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+
+        // Swap it with the smallest greater character to its right
+        int j = chars.length - 1;
+        while (chars[j] <= chars[i]) {
+            j--;
+        }
+        swap(chars, i, j);
+
+        // The suffix is in descending order; reverse it to get the smallest suffix
+        for (int left = i + 1, right = chars.length - 1; left < right; left++, right--) {
+            swap(chars, left, right);
+        }
+        return true;
+    }
+
+    private static void swap(char[] chars, int i, int j) {
+        char temp = chars[i];
+        chars[i] = chars[j];
+        chars[j] = temp;
+    }
+
+    /**
+     * Counts the distinct permutations of sorted characters, n! / (c1! * c2! * ...),
+     * as a product of binomial coefficients.
+     *
+     * @return The count, or -1 if it does not fit in a long
+     */
+    static long countOrNegative(char[] sorted) {
+        long count = 1;
+        int placed = 0;
+        try {
+            for (int start = 0; start < sorted.length; ) {
+                int end = start;
+                while (end < sorted.length && sorted[end] == sorted[start]) {
+                    end++;
+                }
+                // Choose positions for this group of equal characters among those placed so far
+                for (int k = 1; k <= end - start; k++) {
+                    placed++;
+                    count = Math.multiplyExact(count, placed) / k;
+                }
+                start = end;
+            }
+        } catch (ArithmeticException e) {
+            return -1;
+        }
+        return count;
+    }
+}
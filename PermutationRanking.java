@@ -0,0 +1,187 @@
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Random access to the distinct permutations of a string in lexicographic order.
+ * A rank is computed position by position in the factorial number system, generalised to
+ * repeated characters: each choice skips the multinomial count of permutations that start
+ * with a smaller character. Ranks are BigIntegers, so inputs beyond 20! are supported.
+ * Time Complexity: O(n * k) arithmetic operations, where k is the number of distinct characters
+ */
+public final class PermutationRanking {
+
+    private PermutationRanking() {
+    }
+
+    /**
+     * Counts the distinct permutations of the input, n! / (c1! * c2! * ...).
+     *
+     * @param input The string whose permutations to count
+     * @return The number of distinct permutations
+     * @throws IllegalArgumentException if input is null
+     */
+    public static BigInteger count(String input) {
+        Multiset multiset = new Multiset(input);
+        BigInteger total = BigInteger.ONE;
+        int placed = 0;
+        for (int s = 0; s < multiset.distinct; s++) {
+            // Choose positions for this group of equal characters among those placed so far
+            for (int k = 1; k <= multiset.counts[s]; k++) {
+                placed++;
+                total = total.multiply(BigInteger.valueOf(placed)).divide(BigInteger.valueOf(k));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the position of a permutation among the distinct permutations of its own
+     * characters, in lexicographic order starting at 0.
+     *
+     * @param permutation The permutation to rank
+     * @return The zero-based rank
+     * @throws IllegalArgumentException if permutation is null
+     */
+    public static BigInteger rank(String permutation) {
+        Multiset multiset = new Multiset(permutation);
+        BigInteger total = count(permutation);
+        BigInteger rank = BigInteger.ZERO;
+        for (int position = 0; position < permutation.length(); position++) {
+            int left = permutation.length() - position;
+            char c = permutation.charAt(position);
+            for (int s = 0; s < multiset.distinct; s++) {
+                if (multiset.counts[s] == 0) {
+                    continue;
+                }
+                BigInteger block = share(total, multiset.counts[s], left);
+                if (multiset.symbols[s] == c) {
+                    multiset.counts[s]--;
+                    total = block;
+                    break;
+                }
+                rank = rank.add(block);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Builds the permutation of the alphabet with the given lexicographic rank.
+     *
+     * @param alphabet The characters to permute, in any order
+     * @param index The zero-based rank
+     * @return The permutation at that rank
+     * @throws IllegalArgumentException if alphabet is null or index is out of range
+     */
+    public static String unrank(String alphabet, BigInteger index) {
+        return new String(unrankToArray(alphabet, index));
+    }
+
+    /**
+     * Builds the permutation of the alphabet with the given lexicographic rank.
+     *
+     * @param alphabet The characters to permute, in any order
+     * @param index The zero-based rank
+     * @return The permutation at that rank
+     * @throws IllegalArgumentException if alphabet is null or index is out of range
+     */
+    public static String unrank(String alphabet, long index) {
+        return unrank(alphabet, BigInteger.valueOf(index));
+    }
+
+    /**
+     * Returns a slice of the distinct permutations in lexicographic order, starting at the
+     * given rank, without generating the permutations before it.
+     *
+     * @param input The string for which to generate permutations
+     * @param offset The zero-based rank of the first permutation to return
+     * @param limit The maximum number of permutations to return
+     * @return Up to limit permutations; empty if offset is at or past the end
+     * @throws IllegalArgumentException if input is null, offset is negative or limit is negative
+     */
+    public static List<String> page(String input, BigInteger offset, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        if (offset == null || offset.signum() < 0) {
+            throw new IllegalArgumentException("Offset cannot be negative");
+        }
+        BigInteger total = count(input);
+        if (offset.compareTo(total) >= 0 || limit == 0) {
+            return new ArrayList<>();
+        }
+        int size = total.subtract(offset).min(BigInteger.valueOf(limit)).intValue();
+        List<String> page = new ArrayList<>(size);
+        char[] chars = unrankToArray(input, offset);
+        page.add(new String(chars));
+        while (page.size() < size) {
+            PermutationIterator.nextPermutation(chars);
+            page.add(new String(chars));
+        }
+        return page;
+    }
+
+    private static char[] unrankToArray(String alphabet, BigInteger index) {
+        BigInteger total = count(alphabet);
+        if (index == null || index.signum() < 0 || index.compareTo(total) >= 0) {
+            throw new IllegalArgumentException("Index must be between 0 and " + total.subtract(BigInteger.ONE));
+        }
+        Multiset multiset = new Multiset(alphabet);
+        char[] result = new char[alphabet.length()];
+        BigInteger rank = index;
+        for (int position = 0; position < result.length; position++) {
+            int left = result.length - position;
+            for (int s = 0; s < multiset.distinct; s++) {
+                if (multiset.counts[s] == 0) {
+                    continue;
+                }
+                // Permutations of the remaining characters that start with this symbol
+                BigInteger block = share(total, multiset.counts[s], left);
+                if (rank.compareTo(block) < 0) {
+                    result[position] = multiset.symbols[s];
+                    multiset.counts[s]--;
+                    total = block;
+                    break;
+                }
+                rank = rank.subtract(block);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes total * count / length; the division is always exact.
+     */
+    private static BigInteger share(BigInteger total, int count, int length) {
+        return total.multiply(BigInteger.valueOf(count)).divide(BigInteger.valueOf(length));
+    }
+
+    /**
+     * The distinct characters of a string in sorted order, with their multiplicities.
+     */
+    private static class Multiset {
+        final char[] symbols;
+        final int[] counts;
+        final int distinct;
+
+        Multiset(String input) {
+            if (input == null) {
+                throw new IllegalArgumentException("Input string cannot be null");
+            }
+            char[] sorted = input.toCharArray();
+            Arrays.sort(sorted);
+            symbols = new char[sorted.length];
+            counts = new int[sorted.length];
+            int d = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    symbols[d++] = sorted[i];
+                }
+                counts[d - 1]++;
+            }
+            distinct = d;
+        }
+    }
+}
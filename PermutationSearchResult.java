@@ -0,0 +1,45 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a constrained permutation search: the permutations that satisfied every
+ * constraint, and how much of the search tree was expanded to find them.
+ */
+public class PermutationSearchResult {
+    private final List<String> matches;
+    private final long nodesVisited;
+    private final long nodesPruned;
+
+    PermutationSearchResult(List<String> matches, long nodesVisited, long nodesPruned) {
+        this.matches = Collections.unmodifiableList(matches);
+        this.nodesVisited = nodesVisited;
+        this.nodesPruned = nodesPruned;
+    }
+
+    /**
+     * Returns the matching permutations in lexicographic order.
+     */
+    public List<String> getMatches() {
+        return matches;
+    }
+
+    /**
+     * Returns the number of partial permutations that were expanded, including complete ones.
+     */
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    /**
+     * Returns the number of partial permutations rejected by a constraint before expansion.
+     */
+    public long getNodesPruned() {
+        return nodesPruned;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Found %d permutation(s)\nNodes visited: %d\nNodes pruned: %d",
+            matches.size(), nodesVisited, nodesPruned);
+    }
+}
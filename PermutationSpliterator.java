@@ -0,0 +1,178 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A splittable source of the distinct permutations of a string, covering a range of
+ * lexicographic ranks. Splitting halves the range and jumps straight to the permutation at
+ * the midpoint by unranking it, so fork-join tasks get equal shares of the work and never
+ * see the same permutation twice, even when the input has repeated characters.
+ */
+class PermutationSpliterator implements Spliterator<String> {
+    private static final int CHARACTERISTICS = ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED
+        | NONNULL | IMMUTABLE;
+
+    // The input characters in sorted order, shared read-only by all splits
+    private final char[] sorted;
+    // The permutation at rank index, rearranged in place as the range is consumed
+    private char[] current;
+    private long index;
+    private final long end;
+
+    /**
+     * Creates a spliterator over all distinct permutations of the input.
+     *
+     * @param input The string for which to generate permutations
+     * @throws IllegalArgumentException if input is null or has more than Long.MAX_VALUE permutations
+     */
+    PermutationSpliterator(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        this.sorted = input.toCharArray();
+        Arrays.sort(sorted);
+        long count = PermutationIterator.countOrNegative(sorted);
+        if (count < 0) {
+            throw new IllegalArgumentException("Too many permutations to split: " + input.length() + " characters");
+        }
+        this.current = sorted.clone();
+        this.index = 0;
+        this.end = count;
+    }
+
+    private PermutationSpliterator(char[] sorted, char[] current, long index, long end) {
+        this.sorted = sorted;
+        this.current = current;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(new String(current));
+        if (++index < end) {
+            PermutationIterator.nextPermutation(current);
+        }
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        while (index < end) {
+            action.accept(new String(current));
+            if (++index < end) {
+                PermutationIterator.nextPermutation(current);
+            }
+        }
+    }
+
+    /**
+     * Passes each remaining permutation to the visitor as a view of the internal array.
+     *
+     * @param visitor Receives each permutation; returns false to stop early
+     */
+    void forEachRemainingView(PermutationVisitor visitor) {
+        while (index < end) {
+            boolean proceed = visitor.visit(current);
+            if (++index < end) {
+                PermutationIterator.nextPermutation(current);
+            }
+            if (!proceed) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        long remaining = end - index;
+        if (remaining < 2) {
+            return null;
+        }
+        // Hand the lower half to the new spliterator and jump to the midpoint
+        long mid = index + remaining / 2;
+        PermutationSpliterator prefix = new PermutationSpliterator(sorted, current, index, mid);
+        this.current = unrank(sorted, mid);
+        this.index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    @Override
+    public Comparator<? super String> getComparator() {
+        return null; // Natural String order
+    }
+
+    /**
+     * Builds the permutation with the given lexicographic rank among the distinct
+     * permutations of the sorted characters.
+     * Time Complexity: O(n * k), where k is the number of distinct characters
+     *
+     * @param sorted The characters in sorted order
+     * @param rank The rank, from 0 to the permutation count minus one
+     * @return A new array holding the permutation
+     */
+    static char[] unrank(char[] sorted, long rank) {
+        // Distinct characters in order, with how many of each are still unplaced
+        char[] symbols = new char[sorted.length];
+        int[] counts = new int[sorted.length];
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                symbols[distinct++] = sorted[i];
+            }
+            counts[distinct - 1]++;
+        }
+
+        char[] result = new char[sorted.length];
+        long total = PermutationIterator.countOrNegative(sorted);
+        for (int position = 0; position < result.length; position++) {
+            int left = result.length - position;
+            for (int s = 0; s < distinct; s++) {
+                if (counts[s] == 0) {
+                    continue;
+                }
+                // Permutations of the remaining characters that start with this symbol
+                long block = share(total, counts[s], left);
+                if (rank < block) {
+                    result[position] = symbols[s];
+                    counts[s]--;
+                    total = block;
+                    break;
+                }
+                rank -= block;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes total * count / length without overflow; the division is always exact.
+     */
+    private static long share(long total, int count, int length) {
+        int gcd = gcd(count, length);
+        return total / (length / gcd) * (count / gcd);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
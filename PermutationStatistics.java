@@ -0,0 +1,160 @@
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * Aggregate statistics over the distinct permutations of a string, computed in parallel
+ * without holding the permutations in memory. The permutation space is split into rank
+ * ranges on the fork-join pool; each task walks its range in place and only its counters
+ * are merged.
+ */
+public class PermutationStatistics {
+    private final BigInteger totalCount;
+    private final long examined;
+    private final long matching;
+    private final SortedMap<Character, Long> firstCharacterDistribution;
+
+    private PermutationStatistics(BigInteger totalCount, long examined, long matching,
+                                  SortedMap<Character, Long> firstCharacterDistribution) {
+        this.totalCount = totalCount;
+        this.examined = examined;
+        this.matching = matching;
+        this.firstCharacterDistribution = Collections.unmodifiableSortedMap(firstCharacterDistribution);
+    }
+
+    /**
+     * Walks every distinct permutation of the input and aggregates it.
+     *
+     * @param input The string for which to generate permutations
+     * @param predicate Condition to count; receives a view valid only during the call
+     * @return The aggregated statistics
+     * @throws IllegalArgumentException if input or predicate is null, or there are more
+     *         than Long.MAX_VALUE permutations
+     */
+    public static PermutationStatistics compute(String input, Predicate<CharSequence> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Predicate cannot be null");
+        }
+        PermutationSpliterator spliterator = new PermutationSpliterator(input);
+        // Leave enough tasks for load balancing without splitting tiny ranges
+        long threshold = Math.max(1024, spliterator.estimateSize() / (ForkJoinPool.getCommonPoolParallelism() * 16L));
+        Counts counts = ForkJoinPool.commonPool().invoke(new StatisticsTask(spliterator, predicate, threshold));
+        return new PermutationStatistics(PermutationRanking.count(input), counts.examined, counts.matching,
+            counts.byFirstCharacter);
+    }
+
+    /**
+     * Returns the closed-form number of distinct permutations.
+     */
+    public BigInteger getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the number of permutations walked.
+     */
+    public long getExamined() {
+        return examined;
+    }
+
+    /**
+     * Returns the number of permutations that matched the predicate.
+     */
+    public long getMatching() {
+        return matching;
+    }
+
+    /**
+     * Returns how many matching permutations start with each character.
+     */
+    public SortedMap<Character, Long> getFirstCharacterDistribution() {
+        return firstCharacterDistribution;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder distribution = new StringBuilder();
+        for (Map.Entry<Character, Long> entry : firstCharacterDistribution.entrySet()) {
+            distribution.append(String.format("\n  '%c': %d", entry.getKey(), entry.getValue()));
+        }
+        return String.format("Permutations: %s\nMatching: %d\nMatching by first character:%s",
+            totalCount, matching, distribution);
+    }
+
+    /**
+     * Counters of one rank range.
+     */
+    private static class Counts {
+        long examined;
+        long matching;
+        final SortedMap<Character, Long> byFirstCharacter = new TreeMap<>();
+
+        Counts merge(Counts other) {
+            examined += other.examined;
+            matching += other.matching;
+            other.byFirstCharacter.forEach((c, n) -> byFirstCharacter.merge(c, n, Long::sum));
+            return this;
+        }
+    }
+
+    private static class StatisticsTask extends RecursiveTask<Counts> {
+        private static final long serialVersionUID = 1L;
+
+        private final PermutationSpliterator spliterator;
+        private final Predicate<CharSequence> predicate;
+        private final long threshold;
+
+        StatisticsTask(PermutationSpliterator spliterator, Predicate<CharSequence> predicate, long threshold) {
+            this.spliterator = spliterator;
+            this.predicate = predicate;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (spliterator.estimateSize() > threshold) {
+                PermutationSpliterator lower = (PermutationSpliterator) spliterator.trySplit();
+                StatisticsTask left = new StatisticsTask(lower, predicate, threshold);
+                left.fork();
+                Counts right = new StatisticsTask(spliterator, predicate, threshold).compute();
+                return left.join().merge(right);
+            }
+
+            Counts counts = new Counts();
+            // Ranges are contiguous in lexicographic order, so the first character changes
+            // rarely; count runs and flush them instead of updating the map per permutation.
+            char[] run = new char[1];
+            long[] runLength = new long[1];
+            CharBuffer[] view = new CharBuffer[1];
+            spliterator.forEachRemainingView(permutation -> {
+                if (view[0] == null) {
+                    view[0] = CharBuffer.wrap(permutation);
+                }
+                counts.examined++;
+                if (predicate.test(view[0])) {
+                    counts.matching++;
+                    if (permutation.length == 0) {
+                        return true;
+                    }
+                    if (runLength[0] > 0 && permutation[0] != run[0]) {
+                        counts.byFirstCharacter.merge(run[0], runLength[0], Long::sum);
+                        runLength[0] = 0;
+                    }
+                    run[0] = permutation[0];
+                    runLength[0]++;
+                }
+                return true;
+            });
+            if (runLength[0] > 0) {
+                counts.byFirstCharacter.merge(run[0], runLength[0], Long::sum);
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * Receives permutations one at a time as a view of a reusable char array.
+ */
+@FunctionalInterface
+public interface PermutationVisitor {
+
+    /**
+     * Called once per permutation. The array is reused for the next permutation and
+     * must not be modified or kept after the call returns; copy it if needed.
+     *
+     * @param permutation The current permutation
+     * @return true to continue, false to stop generating
+     */
+    boolean visit(char[] permutation);
+}
@@ -0,0 +1,165 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Restricts which parts of a directory tree a search visits and which files it reports.
+ * The filters are evaluated during the walk: excluded, ignored or too deep directories
+ * are never listed, and the size and modification time of a file are only read once
+ * its name has matched.
+ * <pre>
+ * SearchFilter filter = new SearchFilter()
+ *     .excludeDirectories("node_modules", ".git", "build*")
+ *     .maxDepth(6)
+ *     .useIgnoreFiles(".gitignore");
+ * </pre>
+ */
+public class SearchFilter {
+    private final List<String> excludedDirectories = new ArrayList<>();
+    private final List<String> ignoreFileNames = new ArrayList<>();
+    private FileNameMatcher excludedDirectoryMatcher;
+    private int maxDepth = Integer.MAX_VALUE;
+    private long minSize = 0;
+    private long maxSize = Long.MAX_VALUE;
+    private long modifiedAfter = Long.MIN_VALUE;
+    private long modifiedBefore = Long.MAX_VALUE;
+
+    /**
+     * Returns a filter that accepts everything.
+     */
+    public static SearchFilter none() {
+        return new SearchFilter();
+    }
+
+    /**
+     * Skips directories whose name matches any of the given globs, e.g. {@code node_modules}
+     * or {@code build*}. Their contents are never listed.
+     *
+     * @param globs Glob patterns matched against directory names
+     * @return This filter
+     * @throws IllegalArgumentException if a glob is empty or malformed
+     */
+    public SearchFilter excludeDirectories(String... globs) {
+        List<String> queries = new ArrayList<>(excludedDirectories);
+        for (String glob : globs) {
+            if (glob == null || glob.trim().isEmpty()) {
+                throw new IllegalArgumentException("Directory glob cannot be null or empty");
+            }
+            queries.add(glob);
+        }
+        excludedDirectoryMatcher = new FileNameMatcher(prefixGlobs(queries));
+        excludedDirectories.clear();
+        excludedDirectories.addAll(queries);
+        return this;
+    }
+
+    /**
+     * Limits how deep the walk descends. Files directly in the starting directory are at
+     * depth 1, so a maximum depth of 1 searches only the starting directory.
+     *
+     * @param depth The maximum depth of reported files
+     * @return This filter
+     * @throws IllegalArgumentException if depth is less than 1
+     */
+    public SearchFilter maxDepth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Maximum depth must be at least 1: " + depth);
+        }
+        this.maxDepth = depth;
+        return this;
+    }
+
+    /**
+     * Only reports files whose size in bytes lies within the given bounds, inclusive.
+     *
+     * @return This filter
+     * @throws IllegalArgumentException if the bounds are negative or reversed
+     */
+    public SearchFilter sizeBetween(long minBytes, long maxBytes) {
+        if (minBytes < 0 || maxBytes < minBytes) {
+            throw new IllegalArgumentException("Invalid size range: " + minBytes + ".." + maxBytes);
+        }
+        this.minSize = minBytes;
+        this.maxSize = maxBytes;
+        return this;
+    }
+
+    /**
+     * Only reports files last modified within the given bounds, in epoch milliseconds, inclusive.
+     *
+     * @return This filter
+     * @throws IllegalArgumentException if the bounds are reversed
+     */
+    public SearchFilter modifiedBetween(long afterMillis, long beforeMillis) {
+        if (beforeMillis < afterMillis) {
+            throw new IllegalArgumentException("Invalid time range: " + afterMillis + ".." + beforeMillis);
+        }
+        this.modifiedAfter = afterMillis;
+        this.modifiedBefore = beforeMillis;
+        return this;
+    }
+
+    /**
+     * Reads ignore files with the given names, such as {@code .gitignore}, from every listed
+     * directory. Their rules follow .gitignore syntax and apply to that directory and below.
+     *
+     * @param fileNames Names of the ignore files
+     * @return This filter
+     * @throws IllegalArgumentException if a name is empty
+     */
+    public SearchFilter useIgnoreFiles(String... fileNames) {
+        for (String fileName : fileNames) {
+            if (fileName == null || fileName.trim().isEmpty()) {
+                throw new IllegalArgumentException("Ignore file name cannot be null or empty");
+            }
+            ignoreFileNames.add(fileName);
+        }
+        return this;
+    }
+
+    /**
+     * Checks whether a directory must not be listed.
+     */
+    boolean isDirectoryExcluded(String name) {
+        return excludedDirectoryMatcher != null && excludedDirectoryMatcher.matchesAny(name);
+    }
+
+    /**
+     * Checks whether the size and modification time of a file need to be read.
+     */
+    boolean hasAttributeFilters() {
+        return minSize > 0 || maxSize < Long.MAX_VALUE
+            || modifiedAfter > Long.MIN_VALUE || modifiedBefore < Long.MAX_VALUE;
+    }
+
+    /**
+     * Checks a file's size and modification time against the bounds.
+     */
+    boolean acceptsAttributes(long size, long lastModifiedMillis) {
+        return size >= minSize && size <= maxSize
+            && lastModifiedMillis >= modifiedAfter && lastModifiedMillis <= modifiedBefore;
+    }
+
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    List<String> getIgnoreFileNames() {
+        return Collections.unmodifiableList(ignoreFileNames);
+    }
+
+    private static List<String> prefixGlobs(List<String> globs) {
+        List<String> queries = new ArrayList<>(globs.size());
+        for (String glob : globs) {
+            queries.add("glob:" + glob);
+        }
+        return queries;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SearchFilter[excluded=%s, maxDepth=%d, size=%d..%d, modified=%d..%d, ignoreFiles=%s]",
+            excludedDirectories, maxDepth, minSize, maxSize, modifiedAfter, modifiedBefore,
+            ignoreFileNames);
+    }
+}
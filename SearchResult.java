@@ -0,0 +1,57 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of one search: the paths found and the counters of the walk that found them.
+ * Each call to {@link FileFinderRecursive#search} returns its own result, so a finder
+ * shared between threads never mixes up the results of concurrent searches.
+ */
+public class SearchResult {
+    private final List<String> paths;
+    private final TraversalStatistics statistics;
+    private final Budget.StopReason stopReason;
+
+    SearchResult(List<String> paths, TraversalStatistics statistics) {
+        this(paths, statistics, Budget.StopReason.COMPLETED);
+    }
+
+    SearchResult(List<String> paths, TraversalStatistics statistics, Budget.StopReason stopReason) {
+        this.paths = Collections.unmodifiableList(paths);
+        this.statistics = statistics;
+        this.stopReason = stopReason;
+    }
+
+    /**
+     * Returns the full paths where the file was found, in walk order.
+     */
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * Returns the counters of the walk.
+     */
+    public TraversalStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns whether the whole tree was searched; false if a {@link Budget} stopped the walk.
+     */
+    public boolean isComplete() {
+        return stopReason == Budget.StopReason.COMPLETED;
+    }
+
+    /**
+     * Returns why the search stopped.
+     */
+    public Budget.StopReason getStopReason() {
+        return stopReason;
+    }
+
+    @Override
+    public String toString() {
+        String stopped = isComplete() ? "" : " (stopped early: " + stopReason + ")";
+        return String.format("Found %d file(s)%s\n%s", paths.size(), stopped, statistics);
+    }
+}
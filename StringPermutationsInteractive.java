@@ -1,3 +1,15 @@
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 
@@ -8,13 +20,63 @@ import java.util.Scanner;
 public class StringPermutationsInteractive {
     private static final StringPermutationsRecursive permutations = new StringPermutationsRecursive();
     private static final Scanner scanner = new Scanner(System.in);
+    // Warn before listing more permutations than an 8-character input has
+    private static final BigInteger WARNING_THRESHOLD = BigInteger.valueOf(40320);
+    // Listings repeated for the same input or an anagram of it are served from here
+    private static final long CACHE_WEIGHT = 5_000_000;
+    private static final PermutationCache cache = new PermutationCache(CACHE_WEIGHT);
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            try {
+                runBatchMode(args);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
            // Interactive mode
            runInteractiveMode();
 
     }
 
+    /**
+     * Runs the non-interactive mode: reads one input per line from a file or standard input
+     * and writes all their permutations to standard output, reporting the throughput on
+     * standard error so that the output can be piped.
+     *
+     * @param args "--batch", then an optional input file, "--limit=N" and "--threads=N"
+     */
+    private static void runBatchMode(String[] args) throws IOException {
+        String inputFile = null;
+        PermutationBatchWriter writer = new PermutationBatchWriter();
+        long limit = Long.MAX_VALUE;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--limit=")) {
+                limit = Long.parseLong(args[i].substring("--limit=".length()));
+            } else if (args[i].startsWith("--threads=")) {
+                writer = new PermutationBatchWriter(Integer.parseInt(args[i].substring("--threads=".length())));
+            } else if (inputFile == null && !args[i].startsWith("--")) {
+                inputFile = args[i];
+            } else {
+                throw new IllegalArgumentException(
+                    "Usage: java StringPermutationsInteractive --batch [input_file] [--limit=N] [--threads=N]");
+            }
+        }
+        writer.limitPerInput(limit);
+
+        // Write to the file descriptor directly rather than through the synchronized System.out
+        WritableByteChannel output = Channels.newChannel(new FileOutputStream(FileDescriptor.out));
+        PermutationBatchWriter.BatchResult result;
+        try (BufferedReader inputs = inputFile == null
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(inputFile), StandardCharsets.UTF_8)) {
+            result = writer.write(inputs, output);
+        }
+        System.err.println(result);
+    }
+
     /**
      * Runs the interactive mode with a menu-driven interface
      */
@@ -29,6 +91,16 @@ public class StringPermutationsInteractive {
                         generatePermutationsInteractive();
                         break;
                     case "2":
+                        showPageInteractive();
+                        break;
+                    case "3":
+                        showStatisticsInteractive();
+                        break;
+                    case "4":
+                        System.out.println("\n" + cache);
+                        System.out.println("\n" + Metrics.report());
+                        break;
+                    case "5":
                         System.out.println("Thank you for using String Permutations Generator!");
                         return;
                     default:
@@ -49,8 +121,11 @@ public class StringPermutationsInteractive {
     private static void printMenu() {
         System.out.println("\n=== String Permutations Generator ===");
         System.out.println("1. Generate Permutations");
-        System.out.println("2. Exit");
-        System.out.print("Enter your choice (1-2): ");
+        System.out.println("2. Show a Page of Permutations");
+        System.out.println("3. Permutation Statistics");
+        System.out.println("4. Cache Statistics and Metrics");
+        System.out.println("5. Exit");
+        System.out.print("Enter your choice (1-5): ");
     }
 
     /**
@@ -60,8 +135,9 @@ public class StringPermutationsInteractive {
         System.out.print("Enter a string to generate permutations: ");
         String input = scanner.nextLine().trim();
         
-        if (input.length() > 8) {
-            System.out.print("Warning: This will generate " + factorial(input.length()) + 
+        BigInteger count = permutations.countPermutations(input);
+        if (count.compareTo(WARNING_THRESHOLD) > 0) {
+            System.out.print("Warning: This will generate " + count + 
                            " permutations. Continue? (y/n): ");
             if (!scanner.nextLine().trim().toLowerCase().startsWith("y")) {
                 return;
@@ -75,41 +151,112 @@ public class StringPermutationsInteractive {
     }
 
     /**
-     * Generates and prints permutations with optional detail level
+     * Handles interactive display of a slice of the permutations in lexicographic order.
+     * The slice is computed directly from its starting rank, so any page of a very
+     * long input can be shown without generating the permutations before it.
      */
-    private static void generateAndPrint(String input, boolean showAll) {
-        System.out.println("\nGenerating permutations for: \"" + input + "\"");
-        
+    private static void showPageInteractive() {
+        System.out.print("Enter a string to generate permutations: ");
+        String input = scanner.nextLine().trim();
+        BigInteger total = PermutationRanking.count(input);
+
+        System.out.print("Start at permutation (1-" + total + "): ");
+        BigInteger start = new BigInteger(scanner.nextLine().trim());
+        if (start.signum() <= 0) {
+            throw new IllegalArgumentException("Start must be at least 1");
+        }
+        System.out.print("How many permutations? ");
+        int limit = Integer.parseInt(scanner.nextLine().trim());
+
+        List<String> page = PermutationRanking.page(input, start.subtract(BigInteger.ONE), limit);
+        if (page.isEmpty()) {
+            System.out.println("No permutations at that position.");
+            return;
+        }
+        System.out.println("\nPermutations " + start + " to " + start.add(BigInteger.valueOf(page.size() - 1))
+            + " of " + total + ":");
+        for (int i = 0; i < page.size(); i++) {
+            System.out.printf("%4s: %s%n", start.add(BigInteger.valueOf(i)), page.get(i));
+        }
+    }
+
+    /**
+     * Handles interactive computation of statistics over all permutations. The permutations
+     * are walked in parallel and only counted, so nothing is held in memory.
+     */
+    private static void showStatisticsInteractive() {
+        System.out.print("Enter a string to generate permutations: ");
+        String input = scanner.nextLine().trim();
+        System.out.print("Count permutations containing (leave empty for all): ");
+        String fragment = scanner.nextLine().trim();
+
         long startTime = System.currentTimeMillis();
-        List<String> results = permutations.generatePermutations(input);
+        PermutationStatistics statistics = permutations.analyze(input, view -> contains(view, fragment));
         long endTime = System.currentTimeMillis();
-        
-        System.out.println("Generated " + results.size() + " permutations");
+
+        System.out.println("\n" + statistics);
         System.out.println("Time taken: " + (endTime - startTime) + "ms");
-        
-        if (showAll || results.size() <= 20) {
-            System.out.println("\nPermutations:");
-            for (int i = 0; i < results.size(); i++) {
-                System.out.printf("%4d: %s%n", i + 1, results.get(i));
+    }
+
+    /**
+     * Checks whether a character sequence contains a fragment, without copying it.
+     */
+    private static boolean contains(CharSequence text, String fragment) {
+        for (int start = 0; start + fragment.length() <= text.length(); start++) {
+            int i = 0;
+            while (i < fragment.length() && text.charAt(start + i) == fragment.charAt(i)) {
+                i++;
             }
-        } else {
-            System.out.println("\nFirst 10 permutations:");
-            for (int i = 0; i < 10; i++) {
-                System.out.printf("%4d: %s%n", i + 1, results.get(i));
+            if (i == fragment.length()) {
+                return true;
             }
-            System.out.println("... and " + (results.size() - 10) + " more");
         }
+        return false;
     }
 
-
     /**
-     * Calculate factorial for warning messages
+     * Prints permutations in lexicographic order with optional detail level. The count is
+     * computed in closed form; only the permutations actually printed are generated.
+     * Generation is timed before anything is printed, so console output is not measured.
      */
-    private static long factorial(int n) {
-        long result = 1;
-        for (int i = 2; i <= n; i++) {
-            result *= i;
+    private static void generateAndPrint(String input, boolean showAll) {
+        System.out.println("\nGenerating permutations for: \"" + input + "\"");
+        
+        long startTime = System.nanoTime();
+        BigInteger count = permutations.countPermutations(input);
+        boolean printAll = showAll || count.compareTo(BigInteger.valueOf(20)) <= 0;
+        // Lists too large to cache are streamed instead of held in memory
+        boolean cacheable = count.multiply(BigInteger.valueOf(input.length()))
+            .compareTo(BigInteger.valueOf(CACHE_WEIGHT)) <= 0;
+        List<String> shown;
+        if (printAll && cacheable) {
+            shown = cache.get(input);
+        } else if (printAll) {
+            // Too many to hold: time a pass that only walks them, then stream them again below
+            shown = null;
+            permutations.lexicographicIterator(input).forEachView(view -> { });
+        } else {
+            shown = permutations.page(input, 0, 10);
+        }
+        long endTime = System.nanoTime();
+        
+        System.out.println("Generated " + count + " permutations");
+        System.out.println("Time taken: " + (endTime - startTime) / 1_000_000 + "ms");
+        
+        if (printAll) {
+            System.out.println("\nPermutations:");
+            Iterator<String> iterator = shown != null
+                ? shown.iterator()
+                : permutations.lexicographicIterator(input);
+            for (long i = 1; iterator.hasNext(); i++) {
+                System.out.printf("%4d: %s%n", i, iterator.next());
+            }
+        } else {
+            System.out.println("\nFirst 10 permutations:");
+            for (int i = 0; i < shown.size(); i++) {
+                System.out.printf("%4d: %s%n", i + 1, shown.get(i));
+            }
+            System.out.println("... and " + count.subtract(BigInteger.TEN) + " more");
         }
-        return result;
     }
 }
\ No newline at end of file
@@ -1,7 +1,19 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A utility class that generates all possible permutations of a given string.
@@ -9,6 +21,13 @@ import java.util.Set;
  * Space Complexity: O(n!) to store all permutations
  */
 public class StringPermutationsRecursive {
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final Metrics.Counter GENERATED = Metrics.counter("permutations.generated");
+    private static final Metrics.Histogram PER_SECOND = Metrics.histogram("permutations.per.second");
+    private static final Metrics.Histogram BYTES_PER_PERMUTATION =
+        Metrics.histogram("permutations.allocated.bytes.per.permutation");
+    private static final Metrics.Histogram DEDUP_SET_SIZE = Metrics.histogram("permutations.dedup.set.size");
     
     /**
      * Generates all permutations of the input string.
@@ -37,9 +56,14 @@ public class StringPermutationsRecursive {
         }
         
         // Start recursive permutation generation
+        GenerationProbe probe = GenerationProbe.start();
         generatePermutationsHelper("", input, permutations);
         
-        return new ArrayList<>(permutations);
+        List<String> result = new ArrayList<>(permutations);
+        if (probe != null) {
+            probe.finish("recursive", input.length(), result.size(), permutations.size());
+        }
+        return result;
     }
     
     /**
@@ -68,6 +92,36 @@ public class StringPermutationsRecursive {
         }
     }
     
+    /**
+     * Generates the distinct permutations of the input in lexicographic order until they are
+     * all generated or the budget stops the generation. Stopping early returns the
+     * permutations generated so far, a prefix of the full list, instead of running out of
+     * memory on a long input. Progress reports give the fraction of the rank space covered.
+     * 
+     * @param input The string for which to generate permutations
+     * @param budget Limits on time, results and memory, and the progress listener
+     * @return The permutations generated and why the generation stopped
+     * @throws IllegalArgumentException if input or budget is null
+     */
+    public GenerationResult generatePermutations(String input, Budget budget) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        if (budget == null) {
+            throw new IllegalArgumentException("Budget cannot be null");
+        }
+        
+        BigInteger total = PermutationRanking.count(input);
+        List<String> permutations = new ArrayList<>();
+        BudgetTracker tracker = new BudgetTracker(budget, permutations::size, total.doubleValue());
+        long bytes = BudgetTracker.stringBytes(input.length());
+        PermutationIterator iterator = new PermutationIterator(input);
+        while (iterator.hasNext() && !tracker.tick() && tracker.admit(bytes)) {
+            permutations.add(iterator.next());
+        }
+        return new GenerationResult(permutations, total, tracker.finish());
+    }
+    
     /**
      * Alternative implementation using character swapping.
      * This method modifies the character array in place.
@@ -81,9 +135,14 @@ public class StringPermutationsRecursive {
             throw new IllegalArgumentException("Input string cannot be null");
         }
         
+        GenerationProbe probe = GenerationProbe.start();
         Set<String> permutations = new HashSet<>();
         generatePermutationsWithSwapHelper(input.toCharArray(), 0, permutations);
-        return new ArrayList<>(permutations);
+        List<String> result = new ArrayList<>(permutations);
+        if (probe != null) {
+            probe.finish("swap", input.length(), result.size(), permutations.size());
+        }
+        return result;
     }
     
     /**
@@ -109,6 +168,297 @@ public class StringPermutationsRecursive {
         }
     }
     
+    /**
+     * Implementation using Heap's algorithm, which moves from one permutation to the next
+     * with a single swap. When all characters are distinct every permutation is produced
+     * exactly once and no set is needed; otherwise duplicates are removed with a set.
+     * 
+     * @param input The string for which to generate permutations
+     * @return List of all possible permutations
+     * @throws IllegalArgumentException if input is null
+     */
+    public List<String> generatePermutationsWithHeap(String input) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        
+        GenerationProbe probe = GenerationProbe.start();
+        char[] chars = input.toCharArray();
+        boolean distinct = input.chars().distinct().count() == chars.length;
+        Collection<String> permutations = distinct ? new ArrayList<>() : new HashSet<>();
+        permutations.add(new String(chars));
+        
+        // counters[i] tracks how many swaps have been made at level i
+        int[] counters = new int[chars.length];
+        int i = 1;
+        while (i < chars.length) {
+            if (counters[i] < i) {
+                swap(chars, i % 2 == 0 ? 0 : counters[i], i);
+                permutations.add(new String(chars));
+                counters[i]++;
+                i = 1;
+            } else {
+                counters[i] = 0;
+                i++;
+            }
+        }
+        List<String> result = distinct ? (List<String>) permutations : new ArrayList<>(permutations);
+        if (probe != null) {
+            probe.finish("heap", input.length(), result.size(), distinct ? 0 : permutations.size());
+        }
+        return result;
+    }
+    
+    /**
+     * Generates all distinct permutations of the input into compact storage, for callers
+     * that need them all in memory. Permutations are bit-packed into one array instead of
+     * being held as separate Strings.
+     * 
+     * @param input The string for which to generate permutations
+     * @return The permutations in lexicographic order
+     * @throws IllegalArgumentException if input is null or has more than Integer.MAX_VALUE permutations
+     */
+    public PackedPermutationList generatePacked(String input) {
+        return PackedPermutationList.of(input);
+    }
+    
+    /**
+     * Lazily generates the distinct permutations of the input in lexicographic order.
+     * Unlike {@link #generatePermutations}, nothing is stored, so inputs too long to
+     * materialise can still be walked or searched.
+     * 
+     * @param input The string for which to generate permutations
+     * @return Iterator over the distinct permutations, smallest first
+     * @throws IllegalArgumentException if input is null
+     */
+    public PermutationIterator lexicographicIterator(String input) {
+        return new PermutationIterator(input);
+    }
+    
+    /**
+     * Returns the distinct permutations of the input as a lazy stream in lexicographic order,
+     * which supports early termination with findFirst or limit.
+     * 
+     * @param input The string for which to generate permutations
+     * @return Sequential stream of the distinct permutations
+     * @throws IllegalArgumentException if input is null
+     */
+    public Stream<String> lexicographicStream(String input) {
+        return new PermutationIterator(input).stream();
+    }
+    
+    /**
+     * Returns the distinct permutations of the input as a parallel stream. The permutation
+     * space is split into balanced ranges of lexicographic ranks, so the fork-join tasks
+     * share the work evenly and repeated characters need no cross-task deduplication.
+     * Encounter order is lexicographic.
+     * 
+     * @param input The string for which to generate permutations
+     * @return Parallel stream of the distinct permutations
+     * @throws IllegalArgumentException if input is null or has more than Long.MAX_VALUE permutations
+     */
+    public Stream<String> parallelStream(String input) {
+        return StreamSupport.stream(new PermutationSpliterator(input), true);
+    }
+    
+    /**
+     * Passes each distinct permutation of the input to the action from the fork-join pool.
+     * The action may be called concurrently and in no particular order.
+     * 
+     * @param input The string for which to generate permutations
+     * @param action Receives each permutation; must be thread-safe
+     * @throws IllegalArgumentException if input is null or has more than Long.MAX_VALUE permutations
+     */
+    public void forEachParallel(String input, Consumer<String> action) {
+        parallelStream(input).forEach(action);
+    }
+    
+    /**
+     * Finds the distinct permutations of the input that satisfy the constraints. Each
+     * constraint is checked as a character is placed, so branches that cannot match are
+     * never expanded, instead of generating all permutations and filtering afterwards.
+     * 
+     * @param input The string for which to generate permutations
+     * @param constraints Prefix, suffix, mask, adjacency and dictionary constraints
+     * @return The matches in lexicographic order, with visited and pruned node counts
+     * @throws IllegalArgumentException if input or constraints is null
+     */
+    public PermutationSearchResult search(String input, PermutationConstraints constraints) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        if (constraints == null) {
+            throw new IllegalArgumentException("Constraints cannot be null");
+        }
+        return ConstrainedPermutationSearch.run(input, constraints);
+    }
+    
+    /**
+     * Writes the distinct permutations of the input to a file in lexicographic order,
+     * streaming them in parallel chunks instead of building a list first.
+     * 
+     * @param input The string for which to generate permutations
+     * @param output The file to write; existing contents are replaced
+     * @param format Newline-separated text or bit-packed binary records
+     * @return The number of permutations and bytes written, and the throughput
+     * @throws IllegalArgumentException if an argument is null or the input cannot be exported
+     * @throws IOException if the file cannot be written
+     */
+    public PermutationExporter.ExportResult exportPermutations(String input, Path output,
+                                                               PermutationExporter.Format format) throws IOException {
+        return PermutationExporter.export(input, output, format);
+    }
+    
+    /**
+     * Counts the distinct permutations of the input in closed form, n! / (c1! * c2! * ...),
+     * without generating any of them.
+     * 
+     * @param input The string whose permutations to count
+     * @return The number of distinct permutations
+     * @throws IllegalArgumentException if input is null
+     */
+    public BigInteger countPermutations(String input) {
+        return PermutationRanking.count(input);
+    }
+    
+    /**
+     * Computes aggregate statistics over the distinct permutations of the input in parallel,
+     * without holding them in memory.
+     * 
+     * @param input The string for which to generate permutations
+     * @param predicate Condition to count; receives a view valid only during the call
+     * @return Counts of all and matching permutations, and matches by first character
+     * @throws IllegalArgumentException if input or predicate is null, or there are more
+     *         than Long.MAX_VALUE permutations
+     */
+    public PermutationStatistics analyze(String input, Predicate<CharSequence> predicate) {
+        return PermutationStatistics.compute(input, predicate);
+    }
+    
+    /**
+     * Returns the position of a permutation among the distinct permutations of its own
+     * characters, in lexicographic order starting at 0.
+     * 
+     * @param permutation The permutation to rank
+     * @return The zero-based rank
+     * @throws IllegalArgumentException if permutation is null
+     */
+    public BigInteger rank(String permutation) {
+        return PermutationRanking.rank(permutation);
+    }
+    
+    /**
+     * Builds the permutation of the alphabet with the given lexicographic rank,
+     * without generating the permutations before it.
+     * 
+     * @param alphabet The characters to permute, in any order
+     * @param index The zero-based rank
+     * @return The permutation at that rank
+     * @throws IllegalArgumentException if alphabet is null or index is out of range
+     */
+    public String unrank(String alphabet, long index) {
+        return PermutationRanking.unrank(alphabet, index);
+    }
+    
+    /**
+     * Returns a slice of the distinct permutations in lexicographic order.
+     * 
+     * @param input The string for which to generate permutations
+     * @param offset The zero-based rank of the first permutation to return
+     * @param limit The maximum number of permutations to return
+     * @return Up to limit permutations; empty if offset is at or past the end
+     * @throws IllegalArgumentException if input is null, offset is negative or limit is negative
+     */
+    public List<String> page(String input, long offset, int limit) {
+        return PermutationRanking.page(input, BigInteger.valueOf(offset), limit);
+    }
+    
+    /**
+     * Passes each distinct permutation of the input to the visitor without allocating.
+     * Permutations are generated by iterative swapping with an explicit cursor per position;
+     * a character is skipped at a position if an equal one was already tried there, so
+     * duplicates are avoided without a global set. All working state is allocated once
+     * up front.
+     * 
+     * @param input The string for which to generate permutations
+     * @param visitor Receives a view of each permutation; returns false to stop early
+     * @return The number of permutations visited
+     * @throws IllegalArgumentException if input or visitor is null
+     */
+    public long visitPermutations(String input, PermutationVisitor visitor) {
+        if (input == null) {
+            throw new IllegalArgumentException("Input string cannot be null");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null");
+        }
+        
+        char[] chars = input.toCharArray();
+        int n = chars.length;
+        if (n == 0) {
+            visitor.visit(chars);
+            return 1;
+        }
+        
+        // cursor[level]: next index to try at that position; chosen[level]: index swapped in
+        int[] cursor = new int[n];
+        int[] chosen = new int[n];
+        long visited = 0;
+        int level = 0;
+        cursor[0] = 0;
+        while (level >= 0) {
+            if (level == n - 1) {
+                visited++;
+                if (!visitor.visit(chars)) {
+                    break;
+                }
+                level = backtrack(chars, chosen, level);
+                continue;
+            }
+            
+            int i = cursor[level];
+            while (i < n && triedAtLevel(chars, level, i)) {
+                i++;
+            }
+            if (i == n) {
+                level = backtrack(chars, chosen, level);
+                continue;
+            }
+            cursor[level] = i + 1;
+            chosen[level] = i;
+            swap(chars, level, i);
+            level++;
+            cursor[level] = level;
+        }
+        return visited;
+    }
+    
+    /**
+     * Steps back one position and undoes the swap made there.
+     * 
+     * @return The new level, or -1 when generation is complete
+     */
+    private int backtrack(char[] chars, int[] chosen, int level) {
+        level--;
+        if (level >= 0) {
+            swap(chars, level, chosen[level]);
+        }
+        return level;
+    }
+    
+    /**
+     * Checks whether the character at index i equals one already tried at this level.
+     * Since every swap is undone, positions level to i-1 hold exactly the candidates tried.
+     */
+    private boolean triedAtLevel(char[] chars, int level, int i) {
+        for (int j = level; j < i; j++) {
+            if (chars[j] == chars[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Helper method to swap characters in an array.
      */
@@ -120,30 +470,184 @@ public class StringPermutationsRecursive {
     
     /**
      * Performance analysis method to compare different implementations.
+     * Each implementation is warmed up first and the fastest of several runs is reported,
+     * which reduces JIT and GC noise; the JMH suite in jmh/ gives rigorous numbers.
      * 
      * @param input Test string
      * @return PerformanceResult containing timing information
      */
     public PerformanceResult analyzePerformance(String input) {
-        long startTime, endTime;
+        return analyzePerformance(input, Arrays.asList(
+            PermutationGenerators.get("recursive"),
+            PermutationGenerators.get("swap")
+        ));
+    }
+    
+    /**
+     * Compares any number of generators on the same input, reporting for each the time
+     * of its fastest run, the bytes allocated by that run and the permutations per second.
+     * Allocation is measured on the calling thread, so work done by a generator on other
+     * threads is not included.
+     * 
+     * @param input Test string
+     * @param generators The generators to compare
+     * @return PerformanceResult with one timing per generator, in the given order
+     * @throws IllegalArgumentException if input is null or generators is null or empty
+     */
+    public PerformanceResult analyzePerformance(String input, Collection<PermutationGenerator> generators) {
+        if (generators == null || generators.isEmpty()) {
+            throw new IllegalArgumentException("At least one generator is required");
+        }
         
-        // Test first implementation
-        startTime = System.nanoTime();
-        List<String> result1 = generatePermutations(input);
-        endTime = System.nanoTime();
-        long time1 = endTime - startTime;
+        // Warm up every implementation so that the timed runs use compiled code
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (PermutationGenerator generator : generators) {
+                generator.generate(input);
+            }
+        }
         
-        // Test swap-based implementation
-        startTime = System.nanoTime();
-        List<String> result2 = generatePermutationsWithSwap(input);
-        endTime = System.nanoTime();
-        long time2 = endTime - startTime;
+        int count = generators.iterator().next().generate(input).size();
+        List<AlgorithmTiming> timings = new ArrayList<>();
+        for (PermutationGenerator generator : generators) {
+            timings.add(fastestRun(generator, input, count));
+        }
+        return new PerformanceResult(count, timings);
+    }
+    
+    /**
+     * Times several runs of a generator.
+     * 
+     * @return The timing of the shortest run
+     */
+    private AlgorithmTiming fastestRun(PermutationGenerator generator, String input, int count) {
+        long fastest = Long.MAX_VALUE;
+        long allocated = -1;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long bytesBefore = allocatedBytes();
+            long startTime = System.nanoTime();
+            generator.generate(input);
+            long elapsed = System.nanoTime() - startTime;
+            long bytesAfter = allocatedBytes();
+            if (elapsed < fastest) {
+                fastest = elapsed;
+                allocated = bytesBefore < 0 ? -1 : bytesAfter - bytesBefore;
+            }
+        }
+        return new AlgorithmTiming(generator.getName(), count, fastest / 1_000_000.0, allocated);
+    }
+    
+    /**
+     * Returns the bytes allocated so far by the current thread, or -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Measures one call that generates a full list of permutations, for {@link Metrics} and
+     * the {@link PermutationGenerationEvent} Flight Recorder event.
+     */
+    private static class GenerationProbe {
+        private final PermutationGenerationEvent event;
+        private final long startTime;
+        private final long bytesBefore;
+
+        private GenerationProbe(PermutationGenerationEvent event) {
+            this.event = event;
+            this.bytesBefore = allocatedBytes();
+            event.begin();
+            this.startTime = System.nanoTime();
+        }
+
+        /**
+         * Starts measuring, or returns null when neither metrics nor the event are enabled
+         * so that the call costs a single check.
+         */
+        static GenerationProbe start() {
+            PermutationGenerationEvent event = new PermutationGenerationEvent();
+            if (!Metrics.isEnabled() && !event.isEnabled()) {
+                return null;
+            }
+            return new GenerationProbe(event);
+        }
+
+        /**
+         * Records the generation.
+         * 
+         * @param algorithm Name of the algorithm
+         * @param inputLength Length of the input string
+         * @param count Number of distinct permutations returned
+         * @param dedupSetSize Entries in the set used to remove duplicates, or 0 if none
+         */
+        void finish(String algorithm, int inputLength, int count, int dedupSetSize) {
+            long elapsed = System.nanoTime() - startTime;
+            long allocated = bytesBefore < 0 ? -1 : allocatedBytes() - bytesBefore;
+            event.end();
+            if (event.shouldCommit()) {
+                event.algorithm = algorithm;
+                event.inputLength = inputLength;
+                event.permutations = count;
+                event.arrangements = factorial(inputLength);
+                event.dedupSetSize = dedupSetSize;
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+            if (Metrics.isEnabled()) {
+                GENERATED.add(count);
+                PER_SECOND.record((long) (count * 1e9 / Math.max(1, elapsed)));
+                if (allocated >= 0) {
+                    BYTES_PER_PERMUTATION.record(allocated / Math.max(1, count));
+                }
+                DEDUP_SET_SIZE.record(dedupSetSize);
+            }
+        }
+
+        private static long factorial(int n) {
+            long result = 1;
+            for (int i = 2; i <= n; i++) {
+                if (result > Long.MAX_VALUE / i) {
+                    return Long.MAX_VALUE;
+                }
+                result *= i;
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * Timing of one algorithm in a performance analysis.
+     */
+    public static class AlgorithmTiming {
+        public final String name;
+        public final double time;
+        public final long allocatedBytes;
+        public final double resultsPerSecond;
         
-        return new PerformanceResult(
-            result1.size(),
-            time1 / 1_000_000.0, // Convert to milliseconds
-            time2 / 1_000_000.0
-        );
+        /**
+         * @param name Name of the algorithm
+         * @param count Number of permutations generated
+         * @param time Time taken in milliseconds
+         * @param allocatedBytes Bytes allocated, or -1 if unknown
+         */
+        public AlgorithmTiming(String name, int count, double time, long allocatedBytes) {
+            this.name = name;
+            this.time = time;
+            this.allocatedBytes = allocatedBytes;
+            this.resultsPerSecond = time > 0 ? count / (time / 1000.0) : 0;
+        }
+        
+        @Override
+        public String toString() {
+            String allocation = allocatedBytes < 0 ? "" : String.format(", %d bytes allocated", allocatedBytes);
+            return String.format("%s: %.2f ms%s, %.0f permutations/s", name, time, allocation, resultsPerSecond);
+        }
     }
     
     /**
@@ -153,19 +657,63 @@ public class StringPermutationsRecursive {
         public final int permutationCount;
         public final double standardTime;
         public final double swapBasedTime;
+        private final List<AlgorithmTiming> timings;
         
         public PerformanceResult(int count, double time1, double time2) {
+            this(count, Arrays.asList(
+                new AlgorithmTiming("recursive", count, time1, -1),
+                new AlgorithmTiming("swap", count, time2, -1)
+            ));
+        }
+        
+        /**
+         * @param count Number of permutations generated
+         * @param timings One timing per algorithm; standardTime and swapBasedTime are taken
+         *                from the entries named "recursive" and "swap", or NaN if absent
+         */
+        public PerformanceResult(int count, List<AlgorithmTiming> timings) {
             this.permutationCount = count;
-            this.standardTime = time1;
-            this.swapBasedTime = time2;
+            this.timings = Collections.unmodifiableList(new ArrayList<>(timings));
+            this.standardTime = timeOf("recursive");
+            this.swapBasedTime = timeOf("swap");
+        }
+        
+        private double timeOf(String name) {
+            for (AlgorithmTiming timing : timings) {
+                if (timing.name.equals(name)) {
+                    return timing.time;
+                }
+            }
+            return Double.NaN;
+        }
+        
+        /**
+         * Returns the timings of all compared algorithms.
+         */
+        public List<AlgorithmTiming> getTimings() {
+            return timings;
+        }
+        
+        /**
+         * Returns the timing with the shortest time.
+         */
+        public AlgorithmTiming getFastest() {
+            AlgorithmTiming fastest = timings.get(0);
+            for (AlgorithmTiming timing : timings) {
+                if (timing.time < fastest.time) {
+                    fastest = timing;
+                }
+            }
+            return fastest;
         }
         
         @Override
         public String toString() {
-            return String.format(
-                "Generated %d permutations\nStandard implementation: %.2f ms\nSwap-based implementation: %.2f ms",
-                permutationCount, standardTime, swapBasedTime
-            );
+            StringBuilder result = new StringBuilder(String.format("Generated %d permutations", permutationCount));
+            for (AlgorithmTiming timing : timings) {
+                result.append('\n').append(timing);
+            }
+            return result.toString();
         }
     }
 }
\ No newline at end of file
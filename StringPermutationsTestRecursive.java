@@ -1,14 +1,39 @@
 import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 import java.util.HashSet;
 import java.util.Set;
 
 public class StringPermutationsTestRecursive {
     private StringPermutationsRecursive permutations;
     
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+    
     @Before
     public void setUp() {
         permutations = new StringPermutationsRecursive();
@@ -95,4 +120,681 @@ public class StringPermutationsTestRecursive {
         List<String> result = permutations.generatePermutations(input);
         assertEquals(40320, result.size());
     }
+    
+    @Test
+    public void testLexicographicIteratorOrder() {
+        List<String> result = new ArrayList<>();
+        permutations.lexicographicIterator("cab").forEachRemaining(result::add);
+        assertEquals(Arrays.asList("abc", "acb", "bac", "bca", "cab", "cba"), result);
+    }
+    
+    @Test
+    public void testLexicographicIteratorSkipsDuplicates() {
+        String input = "aabbbc";
+        List<String> result = permutations.lexicographicStream(input).collect(Collectors.toList());
+        assertEquals(60, result.size()); // 6! / (2! * 3!)
+        assertEquals(new HashSet<>(permutations.generatePermutations(input)), new HashSet<>(result));
+        
+        List<String> sorted = new ArrayList<>(result);
+        Collections.sort(sorted);
+        assertEquals(sorted, result);
+    }
+    
+    @Test
+    public void testLexicographicIteratorEdgeCases() {
+        PermutationIterator iterator = permutations.lexicographicIterator("");
+        assertTrue(iterator.hasNext());
+        assertEquals("", iterator.next());
+        assertFalse(iterator.hasNext());
+        try {
+            iterator.next();
+            fail("Expected NoSuchElementException");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+        assertEquals(Collections.singletonList("aaa"),
+            permutations.lexicographicStream("aaa").collect(Collectors.toList()));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testLexicographicIteratorNullString() {
+        permutations.lexicographicIterator(null);
+    }
+    
+    @Test
+    public void testLexicographicStreamIsLazy() {
+        // 20! permutations could never be materialised
+        assertEquals("abcdefghijklmnopqrst",
+            permutations.lexicographicStream("tsrqponmlkjihgfedcba").findFirst().get());
+        assertEquals(1000, permutations.lexicographicStream("tsrqponmlkjihgfedcba").limit(1000).count());
+        assertEquals(40320, permutations.lexicographicStream("abcdefgh").spliterator().getExactSizeIfKnown());
+    }
+    
+    @Test
+    public void testLexicographicViewReusesArray() {
+        PermutationIterator iterator = permutations.lexicographicIterator("abcdefgh");
+        char[][] seen = new char[1][];
+        long[] count = new long[1];
+        iterator.forEachView(view -> {
+            if (seen[0] == null) {
+                seen[0] = view;
+            }
+            assertSame(seen[0], view);
+            count[0]++;
+        });
+        assertEquals(40320, count[0]);
+        assertFalse(iterator.hasNext());
+    }
+    
+    @Test
+    public void testParallelStreamMatchesSequential() {
+        String input = "abcdefgh";
+        List<String> sequential = permutations.lexicographicStream(input).collect(Collectors.toList());
+        List<String> parallel = permutations.parallelStream(input).collect(Collectors.toList());
+        assertTrue(permutations.parallelStream(input).isParallel());
+        assertEquals(sequential, parallel);
+    }
+    
+    @Test
+    public void testParallelStreamWithDuplicates() {
+        String input = "aaabbbccdd"; // 10! / (3! * 3! * 2! * 2!) = 25200
+        Set<String> unique = permutations.parallelStream(input).collect(Collectors.toSet());
+        assertEquals(25200, unique.size());
+        assertEquals(25200, permutations.parallelStream(input).count());
+    }
+    
+    @Test
+    public void testForEachParallel() {
+        LongAdder count = new LongAdder();
+        permutations.forEachParallel("abcdefghi", permutation -> count.increment());
+        assertEquals(362880, count.sum());
+    }
+    
+    @Test
+    public void testSpliteratorSplitsEvenly() {
+        Spliterator<String> upper = new PermutationSpliterator("abcdefgh");
+        Spliterator<String> lower = upper.trySplit();
+        assertEquals(20160, lower.estimateSize());
+        assertEquals(20160, upper.estimateSize());
+        // The upper half starts at rank 20160, i.e. the first permutation beginning with 'e'
+        upper.tryAdvance(first -> assertEquals("eabcdfgh", first));
+    }
+    
+    @Test
+    public void testUnrankMatchesIteration() {
+        char[] sorted = "aabbcd".toCharArray();
+        PermutationIterator iterator = permutations.lexicographicIterator("aabbcd");
+        for (long rank = 0; iterator.hasNext(); rank++) {
+            assertEquals(iterator.next(), new String(PermutationSpliterator.unrank(sorted, rank)));
+        }
+    }
+    
+    @Test
+    public void testRankAndUnrankRoundTrip() {
+        List<String> all = permutations.lexicographicStream("aabbcd").collect(Collectors.toList());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(BigInteger.valueOf(i), permutations.rank(all.get(i)));
+            assertEquals(all.get(i), permutations.unrank("dcbaba", i));
+        }
+    }
+    
+    @Test
+    public void testRankBeyondLongRange() {
+        String alphabet = "abcdefghijklmnopqrstuvwxy"; // 25! > Long.MAX_VALUE
+        BigInteger count = PermutationRanking.count(alphabet);
+        assertEquals(new BigInteger("15511210043330985984000000"), count);
+        
+        BigInteger last = count.subtract(BigInteger.ONE);
+        String reversed = new StringBuilder(alphabet).reverse().toString();
+        assertEquals(reversed, PermutationRanking.unrank(alphabet, last));
+        assertEquals(last, permutations.rank(reversed));
+        
+        BigInteger middle = count.shiftRight(1);
+        assertEquals(middle, permutations.rank(PermutationRanking.unrank(alphabet, middle)));
+    }
+    
+    @Test
+    public void testMultisetCount() {
+        assertEquals(BigInteger.ONE, PermutationRanking.count(""));
+        assertEquals(BigInteger.valueOf(34650), PermutationRanking.count("mississippi"));
+    }
+    
+    @Test
+    public void testPage() {
+        List<String> all = permutations.lexicographicStream("abcdef").collect(Collectors.toList());
+        assertEquals(all.subList(100, 110), permutations.page("fedcba", 100, 10));
+        assertEquals(all.subList(715, 720), permutations.page("abcdef", 715, 10));
+        assertTrue(permutations.page("abcdef", 720, 10).isEmpty());
+        
+        // The ten-millionth permutation of a 12-character string, without generating the first ones
+        List<String> page = permutations.page("abcdefghijkl", 9_999_999, 2);
+        assertEquals(permutations.unrank("abcdefghijkl", 9_999_999), page.get(0));
+        assertEquals(BigInteger.valueOf(10_000_000), permutations.rank(page.get(1)));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnrankOutOfRange() {
+        permutations.unrank("abc", 6);
+    }
+    
+    @Test
+    public void testVisitorMatchesGeneratedPermutations() {
+        for (String input : new String[] {"", "a", "abcd", "aabb", "aaabbc", "abcdefg"}) {
+            Set<String> visited = new HashSet<>();
+            long count = permutations.visitPermutations(input, view -> visited.add(new String(view)));
+            assertEquals(new HashSet<>(permutations.generatePermutations(input)), visited);
+            assertEquals(visited.size(), count);
+        }
+    }
+    
+    @Test
+    public void testVisitorReusesArray() {
+        char[][] first = new char[1][];
+        long count = permutations.visitPermutations("abcdefgh", view -> {
+            if (first[0] == null) {
+                first[0] = view;
+            }
+            assertSame(first[0], view);
+            return true;
+        });
+        assertEquals(40320, count);
+    }
+    
+    @Test
+    public void testVisitorStopsEarly() {
+        long[] seen = new long[1];
+        long count = permutations.visitPermutations("abcdefghijklmnop", view -> ++seen[0] < 100);
+        assertEquals(100, count);
+        assertEquals(100, seen[0]);
+    }
+    
+    @Test
+    public void testCountPermutations() {
+        assertEquals(BigInteger.valueOf(40320), permutations.countPermutations("abcdefgh"));
+        assertEquals(BigInteger.valueOf(60), permutations.countPermutations("aabbbc"));
+        assertEquals(new BigInteger("51090942171709440000"), permutations.countPermutations("abcdefghijklmnopqrstu"));
+    }
+    
+    @Test
+    public void testAnalyzeStatistics() {
+        String input = "aabbcdef"; // 8! / (2! * 2!) = 10080
+        PermutationStatistics statistics = permutations.analyze(input, view -> view.charAt(view.length() - 1) == 'a');
+        assertEquals(BigInteger.valueOf(10080), statistics.getTotalCount());
+        assertEquals(10080, statistics.getExamined());
+        
+        // Compare with filtering the materialised list
+        List<String> all = permutations.generatePermutations(input);
+        List<String> matching = all.stream().filter(p -> p.endsWith("a")).collect(Collectors.toList());
+        assertEquals(matching.size(), statistics.getMatching());
+        for (char c : "abcdef".toCharArray()) {
+            long expected = matching.stream().filter(p -> p.charAt(0) == c).count();
+            assertEquals(expected, (long) statistics.getFirstCharacterDistribution().getOrDefault(c, 0L));
+        }
+    }
+    
+    @Test
+    public void testAnalyzeLargeInputInParallel() {
+        PermutationStatistics statistics = permutations.analyze("abcdefghij", view -> true);
+        assertEquals(3628800, statistics.getMatching());
+        assertEquals(10, statistics.getFirstCharacterDistribution().size());
+        assertEquals(362880L, (long) statistics.getFirstCharacterDistribution().get('e'));
+    }
+    
+    @Test
+    public void testAnalyzeEmptyString() {
+        PermutationStatistics statistics = permutations.analyze("", view -> true);
+        assertEquals(1, statistics.getMatching());
+        assertTrue(statistics.getFirstCharacterDistribution().isEmpty());
+    }
+    
+    @Test
+    public void testSearchWithoutConstraintsFindsAll() {
+        PermutationSearchResult result = permutations.search("aabc", PermutationConstraints.none());
+        assertEquals(permutations.lexicographicStream("aabc").collect(Collectors.toList()), result.getMatches());
+        assertEquals(0, result.getNodesPruned());
+    }
+    
+    @Test
+    public void testSearchMatchesFiltering() {
+        String input = "abcdeffg";
+        PermutationConstraints constraints = new PermutationConstraints()
+            .prefix("f")
+            .suffix("a")
+            .mask("??c")
+            .forbidAdjacent('d', 'e');
+        PermutationSearchResult result = permutations.search(input, constraints);
+        
+        List<String> expected = permutations.lexicographicStream(input)
+            .filter(p -> p.startsWith("f") && p.endsWith("a") && p.charAt(2) == 'c' && !p.contains("de"))
+            .collect(Collectors.toList());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, result.getMatches());
+        assertTrue(result.getNodesPruned() > 0);
+        // Far fewer nodes than the 8! / 2! leaves of the full tree
+        assertTrue(result.getNodesVisited() < 20160);
+    }
+    
+    @Test
+    public void testSearchWithDictionary() {
+        List<String> words = Arrays.asList("listen", "silent", "enlist", "tinsel", "inlets", "lentil", "list");
+        PermutationSearchResult result = permutations.search("silent", new PermutationConstraints().dictionary(words));
+        assertEquals(Arrays.asList("enlist", "inlets", "listen", "silent", "tinsel"), result.getMatches());
+        // Only prefixes of dictionary words are expanded
+        assertTrue(result.getNodesVisited() < 100);
+    }
+    
+    @Test
+    public void testSearchWithContradictoryConstraints() {
+        assertTrue(permutations.search("abc", new PermutationConstraints().prefix("ab").mask("?c")).getMatches().isEmpty());
+        assertTrue(permutations.search("abc", new PermutationConstraints().prefix("aa")).getMatches().isEmpty());
+        assertTrue(permutations.search("abc", new PermutationConstraints().suffix("abcd")).getMatches().isEmpty());
+    }
+    
+    @Test
+    public void testExportText() throws IOException {
+        String input = "abcdefgh";
+        File output = tempFolder.newFile("permutations.txt");
+        PermutationExporter.ExportResult result =
+            permutations.exportPermutations(input, output.toPath(), PermutationExporter.Format.TEXT);
+        
+        List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        assertEquals(permutations.lexicographicStream(input).collect(Collectors.toList()), lines);
+        assertEquals(40320, result.permutationCount);
+        assertEquals(40320L * 9, result.bytesWritten);
+        assertEquals(result.bytesWritten, output.length());
+    }
+    
+    @Test
+    public void testExportTextWithMultiByteCharacters() throws IOException {
+        File output = tempFolder.newFile("unicode.txt");
+        permutations.exportPermutations("\u00e9\u00e9ab\u4e2d", output.toPath(), PermutationExporter.Format.TEXT);
+        List<String> lines = Files.readAllLines(output.toPath(), StandardCharsets.UTF_8);
+        assertEquals(permutations.lexicographicStream("\u00e9\u00e9ab\u4e2d").collect(Collectors.toList()), lines);
+    }
+    
+    @Test
+    public void testExportBinary() throws IOException {
+        String input = "aabbbcdefg"; // 10! / (2! * 3!) = 302400
+        File output = tempFolder.newFile("permutations.bin");
+        PermutationExporter.ExportResult result =
+            permutations.exportPermutations(input, output.toPath(), PermutationExporter.Format.BINARY);
+        assertEquals(302400, result.permutationCount);
+        assertEquals(result.bytesWritten, output.length());
+        
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(output.toPath()));
+        assertEquals(0x5045524D, data.getInt());
+        int length = data.getInt();
+        char[] symbols = new char[data.getInt()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = data.getChar();
+        }
+        assertEquals(302400, data.getLong());
+        assertEquals("abcdefg", new String(symbols));
+        
+        // 7 symbols take 3 bits each, so a record of 10 positions takes 30 bits
+        assertEquals((302400L * 30 + 7) / 8, data.remaining());
+        
+        PermutationIterator expected = permutations.lexicographicIterator(input);
+        char[] record = new char[length];
+        long bits = 0;
+        int available = 0;
+        for (int r = 0; r < 302400; r++) {
+            for (int i = 0; i < length; i++) {
+                if (available < 3) {
+                    bits |= (data.get() & 0xFFL) << available;
+                    available += 8;
+                }
+                record[i] = symbols[(int) (bits & 7)];
+                bits >>>= 3;
+                available -= 3;
+            }
+            assertEquals(expected.next(), new String(record));
+        }
+        assertFalse(expected.hasNext());
+        assertFalse(data.hasRemaining());
+    }
+    
+    @Test
+    public void testHeapMatchesOtherImplementations() {
+        for (String input : new String[] {"", "a", "abcd", "aabb", "abcdefg", "aabbbc"}) {
+            List<String> heap = permutations.generatePermutationsWithHeap(input);
+            assertEquals(new HashSet<>(permutations.generatePermutations(input)), new HashSet<>(heap));
+            assertEquals(new HashSet<>(heap).size(), heap.size());
+        }
+    }
+    
+    @Test
+    public void testRegisteredGeneratorsAgree() {
+        String input = "aabcdd";
+        Set<String> expected = new HashSet<>(permutations.generatePermutations(input));
+        List<String> names = new ArrayList<>();
+        for (PermutationGenerator generator : PermutationGenerators.all()) {
+            names.add(generator.getName());
+            List<String> result = generator.generate(input);
+            assertEquals(generator.getName(), expected.size(), result.size());
+            assertEquals(generator.getName(), expected, new HashSet<>(result));
+            assertEquals(generator.getName(), expected, generator.stream(input).collect(Collectors.toSet()));
+            assertEquals(generator.getName(), expected.size(), generator.count(input));
+        }
+        assertTrue(names.containsAll(Arrays.asList("recursive", "swap", "heap", "lexicographic", "parallel", "visitor")));
+    }
+    
+    @Test
+    public void testRegisterCustomGenerator() {
+        PermutationGenerators.register(new PermutationGenerator() {
+            @Override
+            public String getName() {
+                return "test-sorted";
+            }
+            
+            @Override
+            public List<String> generate(String input) {
+                List<String> result = permutations.generatePermutations(input);
+                Collections.sort(result);
+                return result;
+            }
+        });
+        assertEquals(6, PermutationGenerators.get("test-sorted").count("abc"));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownGenerator() {
+        PermutationGenerators.get("no-such-generator");
+    }
+    
+    @Test
+    public void testAdaptiveSelection() {
+        assertEquals("heap", PermutationGenerators.select("abcdef", PermutationGenerator.OutputMode.LIST).getName());
+        assertEquals("lexicographic", PermutationGenerators.select("aabbcc", PermutationGenerator.OutputMode.LIST).getName());
+        assertEquals("lexicographic", PermutationGenerators.select("abcdef", PermutationGenerator.OutputMode.STREAM).getName());
+        assertEquals("closed-form", PermutationGenerators.select("abcdef", PermutationGenerator.OutputMode.COUNT).getName());
+        assertEquals("parallel", PermutationGenerators.select("abcdefghij", PermutationGenerator.OutputMode.LIST).getName());
+        assertEquals("Streams should stay sequential however large",
+            "lexicographic", PermutationGenerators.select("abcdefghij", PermutationGenerator.OutputMode.STREAM).getName());
+        assertEquals("lexicographic",
+            PermutationGenerators.select("abcdefghijklmnopqrstuvwxyz", PermutationGenerator.OutputMode.STREAM).getName());
+    }
+    
+    @Test
+    public void testCountModeIsAnsweredInClosedForm() {
+        String input = "abcdefghijklmnopqrst";
+        PermutationGenerator generator = PermutationGenerators.select(input, PermutationGenerator.OutputMode.COUNT);
+        assertEquals(2432902008176640000L, generator.count(input));
+        assertEquals("closed-form",
+            PermutationGenerators.select(input + "uvwxyz", PermutationGenerator.OutputMode.COUNT).getName());
+    }
+    
+    @Test
+    public void testPerformanceAnalysisOfAllGenerators() {
+        StringPermutationsRecursive.PerformanceResult result =
+            permutations.analyzePerformance("abcdef", PermutationGenerators.all());
+        assertEquals(720, result.permutationCount);
+        assertEquals(PermutationGenerators.all().size(), result.getTimings().size());
+        for (StringPermutationsRecursive.AlgorithmTiming timing : result.getTimings()) {
+            assertTrue(timing.time >= 0);
+            assertTrue(timing.resultsPerSecond >= 0);
+        }
+        assertTrue(result.getTimings().contains(result.getFastest()));
+        assertFalse(Double.isNaN(result.standardTime));
+        assertTrue(result.toString().contains("heap"));
+    }
+    
+    @Test
+    public void testPackedListMatchesLexicographicOrder() {
+        for (String input : new String[] {"", "a", "aaa", "abcde", "aabbbc", "abcdef"}) {
+            PackedPermutationList packed = permutations.generatePacked(input);
+            List<String> expected = permutations.lexicographicStream(input).collect(Collectors.toList());
+            assertEquals(expected, packed);
+            assertEquals(expected.size(), packed.size());
+        }
+    }
+    
+    @Test
+    public void testPackedListLookupByRank() {
+        PackedPermutationList packed = permutations.generatePacked("aabbcde");
+        assertEquals(1260, packed.size());
+        for (int i = 0; i < packed.size(); i += 97) {
+            CharSequence permutation = packed.get(i);
+            assertEquals(i, packed.indexOf(permutation));
+            assertEquals(i, packed.indexOf(new StringBuilder(permutation)));
+            assertTrue(packed.contains(permutation.toString()));
+        }
+        assertFalse(packed.contains("aabbcdd"));
+        assertFalse(packed.contains("aabbcd"));
+        assertEquals(-1, packed.indexOf(42));
+    }
+    
+    @Test
+    public void testPackedListIsCompact() {
+        // 10 distinct characters: 4 bits each, 5 bytes per permutation
+        PackedPermutationList packed = permutations.generatePacked("abcdefghij");
+        assertEquals(3628800, packed.size());
+        assertTrue(packed.getStorageBytes() <= 3628800L * 5 + Long.BYTES);
+        assertEquals("abcdefghij", packed.get(0));
+        assertEquals("jihgfedcba", packed.get(packed.size() - 1));
+        assertEquals(permutations.unrank("abcdefghij", 1234567), packed.get(1234567));
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPackedListOutOfRange() {
+        permutations.generatePacked("abc").get(6);
+    }
+    
+    @Test
+    public void testCacheSharesEntriesBetweenAnagrams() {
+        PermutationCache cache = new PermutationCache(1_000_000);
+        List<String> first = cache.get("listen");
+        List<String> second = cache.get("silent");
+        assertSame(first, second);
+        assertEquals(permutations.lexicographicStream("listen").collect(Collectors.toList()), first);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+        assertEquals(1, cache.getSize());
+        assertEquals(720 * 6, cache.getWeight());
+    }
+    
+    @Test
+    public void testCacheEvictsLeastRecentlyUsed() {
+        PermutationCache cache = new PermutationCache(2 * 120 * 5); // room for two 5-character inputs
+        cache.get("abcde");
+        cache.get("fghij");
+        cache.get("edcba"); // touch abcde so fghij becomes eldest
+        cache.get("klmno");
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getSize());
+        
+        cache.get("abcde");
+        assertEquals(2, cache.getHits());
+        cache.get("fghij");
+        assertEquals(4, cache.getMisses());
+        assertTrue(cache.getWeight() <= 2 * 120 * 5);
+    }
+    
+    @Test
+    public void testCacheSkipsOversizedResults() {
+        PermutationCache cache = new PermutationCache(100);
+        assertEquals(720, cache.get("abcdef").size());
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getWeight());
+    }
+    
+    @Test
+    public void testSoftCacheReturnsResults() {
+        PermutationCache cache = new PermutationCache(1_000_000, true);
+        assertEquals(24, cache.get("abcd").size());
+        assertEquals(24, cache.get("dcba").size());
+        assertEquals(2, cache.getHits() + cache.getMisses());
+        assertEquals(cache.getMisses() - 1, cache.getCollected());
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCachedListsAreUnmodifiable() {
+        new PermutationCache(1000).get("abc").add("cab");
+    }
+    
+    @Test
+    public void testGenerationRecordsMetrics() {
+        Metrics.Counter generated = Metrics.counter("permutations.generated");
+        Metrics.Histogram dedup = Metrics.histogram("permutations.dedup.set.size");
+        long generatedBefore = generated.get();
+        long samplesBefore = dedup.getCount();
+        
+        permutations.generatePermutationsWithSwap("aabc");
+        
+        assertEquals(generatedBefore + 12, generated.get());
+        assertEquals(samplesBefore + 1, dedup.getCount());
+    }
+    
+    @Test
+    public void testDisabledMetricsAreNotRecorded() {
+        Metrics.Counter generated = Metrics.counter("permutations.generated");
+        long before = generated.get();
+        Metrics.setEnabled(false);
+        try {
+            assertEquals(24, permutations.generatePermutations("abcd").size());
+        } finally {
+            Metrics.setEnabled(true);
+        }
+        assertEquals(before, generated.get());
+    }
+    
+    @Test
+    public void testHistogramPercentiles() {
+        Metrics.Histogram histogram = Metrics.histogram("test.histogram.percentiles");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(100, histogram.getMax());
+        // 50 falls in the bucket of 32..63, 99 in the bucket of 64..127 capped at the maximum
+        assertEquals(63, histogram.getPercentile(50));
+        assertEquals(100, histogram.getPercentile(99));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testMetricNameCannotChangeType() {
+        Metrics.counter("test.metric.type");
+        Metrics.histogram("test.metric.type");
+    }
+    
+    @Test
+    public void testBatchWritesInputsInOrder() throws IOException {
+        String inputs = "abcdefgh\n\naab\nabcdefg\n";
+        StringBuilder expected = new StringBuilder();
+        for (String input : new String[] {"abcdefgh", "aab", "abcdefg"}) {
+            expected.append("# ").append(input).append(" (").append(permutations.countPermutations(input)).append(")\n");
+            permutations.lexicographicIterator(input).forEachRemaining(p -> expected.append(p).append('\n'));
+        }
+        
+        for (int parallelism : new int[] {1, 4}) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            PermutationBatchWriter.BatchResult result = new PermutationBatchWriter(parallelism)
+                .write(new BufferedReader(new StringReader(inputs)), Channels.newChannel(output));
+            
+            assertEquals(expected.toString(), output.toString(StandardCharsets.UTF_8));
+            assertEquals(3, result.inputCount);
+            assertEquals(3 + 40320 + 3 + 5040, result.lineCount);
+            assertEquals(output.size(), result.bytesWritten);
+        }
+    }
+    
+    @Test
+    public void testBatchLimitPerInput() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new PermutationBatchWriter(2).limitPerInput(2)
+            .write(new BufferedReader(new StringReader("cba\nab")), Channels.newChannel(output));
+        assertEquals("# cba (6)\nabc\nacb\n# ab (2)\nab\nba\n", output.toString(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    public void testBatchLimitsInputWithMoreThanLongMaxPermutations() throws IOException {
+        String input = "abcdefghijklmnopqrstu";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new PermutationBatchWriter(2).limitPerInput(3)
+            .write(new BufferedReader(new StringReader(input)), Channels.newChannel(output));
+        
+        StringBuilder expected = new StringBuilder("# " + input + " (" + permutations.countPermutations(input) + ")\n");
+        permutations.page(input, 0, 3).forEach(p -> expected.append(p).append('\n'));
+        assertEquals(expected.toString(), output.toString(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    public void testBatchRequiresLimitForInputWithMoreThanLongMaxPermutations() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            new PermutationBatchWriter(2)
+                .write(new BufferedReader(new StringReader("ab\nabcdefghijklmnopqrstu\nabc")), Channels.newChannel(output));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Inputs before the unbounded one should be written",
+                "# ab (2)\nab\nba\n", output.toString(StandardCharsets.UTF_8));
+        }
+    }
+    
+    @Test
+    public void testBatchRunsOnGivenExecutor() throws IOException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new PermutationBatchWriter(executor, 3)
+                .write(new BufferedReader(new StringReader("ba")), Channels.newChannel(output));
+            assertEquals("# ba (2)\nab\nba\n", output.toString(StandardCharsets.UTF_8));
+            assertFalse("Writer should not shut down the executor", executor.isShutdown());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchRejectsZeroParallelism() {
+        new PermutationBatchWriter(0);
+    }
+    
+    @Test
+    public void testBudgetedGenerationCompletes() {
+        List<Budget.Progress> reports = new ArrayList<>();
+        GenerationResult result = permutations.generatePermutations("aabc",
+            new Budget().onProgress(reports::add, Duration.ZERO));
+        
+        assertTrue(result.isComplete());
+        assertEquals(permutations.page("aabc", 0, 12), result.getPermutations());
+        assertEquals(1.0, reports.get(reports.size() - 1).fraction, 0);
+        assertEquals(12, reports.get(reports.size() - 1).results);
+    }
+    
+    @Test
+    public void testBudgetedGenerationStopsAtMaxResults() {
+        GenerationResult result = permutations.generatePermutations("abcdefghijkl", new Budget().maxResults(1000));
+        
+        assertFalse(result.isComplete());
+        assertEquals(Budget.StopReason.MAX_RESULTS, result.getStopReason());
+        assertEquals(permutations.page("abcdefghijkl", 0, 1000), result.getPermutations());
+        assertEquals(BigInteger.valueOf(479001600), result.getTotalCount());
+    }
+    
+    @Test
+    public void testBudgetedGenerationStopsAtMemoryEstimate() {
+        GenerationResult result = permutations.generatePermutations("abcdefghijkl",
+            new Budget().maxMemoryBytes(1_000_000));
+        
+        assertEquals(Budget.StopReason.MAX_MEMORY, result.getStopReason());
+        assertTrue(result.getPermutations().size() * BudgetTracker.stringBytes(12) <= 1_000_000);
+        assertTrue((result.getPermutations().size() + 1) * BudgetTracker.stringBytes(12) > 1_000_000);
+    }
+    
+    @Test
+    public void testBudgetedGenerationStopsOnCancellationAndDeadline() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        GenerationResult cancelled = permutations.generatePermutations("abcd", new Budget().cancellationToken(token));
+        assertEquals(Budget.StopReason.CANCELLED, cancelled.getStopReason());
+        assertTrue(cancelled.getPermutations().isEmpty());
+        
+        GenerationResult expired = permutations.generatePermutations("abcdefghijkl",
+            new Budget().timeout(Duration.ZERO));
+        assertEquals(Budget.StopReason.DEADLINE, expired.getStopReason());
+        assertTrue(expired.getFractionCovered() < 1);
+    }
 }
\ No newline at end of file
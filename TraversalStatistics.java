@@ -0,0 +1,76 @@
+/**
+ * Counters describing how much of a directory tree a search touched.
+ */
+public class TraversalStatistics {
+    private long directoriesListed;
+    private long directoriesPruned;
+    private long entriesExamined;
+    private long filesFiltered;
+    private long loopsDetected;
+    private int maxDepthReached;
+
+    void directoryListed() {
+        directoriesListed++;
+    }
+
+    void directoryPruned() {
+        directoriesPruned++;
+    }
+
+    void entryExamined() {
+        entriesExamined++;
+    }
+
+    void fileFiltered() {
+        filesFiltered++;
+    }
+
+    void loopDetected() {
+        loopsDetected++;
+    }
+
+    void depthReached(int depth) {
+        if (depth > maxDepthReached) {
+            maxDepthReached = depth;
+        }
+    }
+
+    /** Returns the number of directories whose contents were read. */
+    public long getDirectoriesListed() {
+        return directoriesListed;
+    }
+
+    /** Returns the number of directories skipped by depth, exclusion or ignore rules. */
+    public long getDirectoriesPruned() {
+        return directoriesPruned;
+    }
+
+    /** Returns the number of directory entries looked at. */
+    public long getEntriesExamined() {
+        return entriesExamined;
+    }
+
+    /** Returns the number of files whose name matched but that failed another filter. */
+    public long getFilesFiltered() {
+        return filesFiltered;
+    }
+
+    /** Returns the number of directory cycles skipped while following symbolic links. */
+    public long getLoopsDetected() {
+        return loopsDetected;
+    }
+
+    /** Returns the depth of the deepest directory listed; the starting directory is depth 0. */
+    public int getMaxDepthReached() {
+        return maxDepthReached;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "Directories listed: %d\nDirectories pruned: %d\nEntries examined: %d\n"
+                + "Files filtered: %d\nLoops detected: %d\nMax depth reached: %d",
+            directoriesListed, directoriesPruned, entriesExamined, filesFiltered, loopsDetected, maxDepthReached
+        );
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * Access to the project classes, which live in the default package. Java code in a named
+ * package cannot refer to them directly, and JMH does not accept benchmarks in the default
+ * package, so the benchmarks bind method handles once and store them in static final
+ * fields, where the JIT inlines them like direct calls.
+ */
+final class Api {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private Api() {
+    }
+
+    /**
+     * Binds a public instance method. The receiver becomes an Object parameter and the
+     * result is adapted to the given type, so callers can use invokeExact.
+     *
+     * @param className Name of the class in the default package
+     * @param name Method name
+     * @param returnType Type the caller expects; a supertype of the real return type
+     * @param parameterTypes Exact parameter types of the method
+     */
+    static MethodHandle method(String className, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        try {
+            Method method = Class.forName(className).getMethod(name, parameterTypes);
+            MethodType type = MethodType.methodType(returnType, Object.class, parameterTypes);
+            return LOOKUP.unreflect(method).asType(type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot bind " + className + "." + name, e);
+        }
+    }
+
+    /**
+     * Creates an instance with the public no-argument constructor.
+     */
+    static Object newInstance(String className) {
+        try {
+            return Class.forName(className).getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + className, e);
+        }
+    }
+
+    /**
+     * Creates a FileFinderRecursive for the named backend.
+     */
+    static Object newFileFinder(String backendName) {
+        try {
+            Class<?> backend = Class.forName("FileFinderRecursive$Backend");
+            Object value = backend.getMethod("valueOf", String.class).invoke(null, backendName);
+            return Class.forName("FileFinderRecursive").getConstructor(backend).newInstance(value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create FileFinderRecursive", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of FileFinderRecursive over a synthetic tree in which every directory has
+ * {@code fanOut} subdirectories down to {@code depth} levels, plus {@code filesPerDirectory}
+ * files. The target name appears once per leaf directory. The tree is built once per trial,
+ * so the numbers measure a warm file system cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileSearchBenchmark {
+    private static final String TARGET = "target.txt";
+    private static final MethodHandle FIND_FILE =
+        Api.method("FileFinderRecursive", "findFile", List.class, String.class, String.class);
+    private static final MethodHandle FIND_FILE_PARALLEL =
+        Api.method("FileFinderRecursive", "findFileParallel", List.class, String.class, String.class);
+
+    @Param({"4"})
+    public int depth;
+
+    @Param({"2", "6"})
+    public int fanOut;
+
+    @Param({"8"})
+    public int filesPerDirectory;
+
+    @Param({"JAVA_IO", "NIO"})
+    public String backend;
+
+    private Path root;
+    private String rootDirectory;
+    private Object finder;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("file-search-benchmark");
+        rootDirectory = root.toString();
+        createTree(root, depth);
+        finder = Api.newFileFinder(backend);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private void createTree(Path directory, int levels) throws IOException {
+        for (int i = 0; i < filesPerDirectory; i++) {
+            Files.createFile(directory.resolve("file" + i + ".dat"));
+        }
+        if (levels == 0) {
+            Files.createFile(directory.resolve(TARGET));
+            return;
+        }
+        for (int i = 0; i < fanOut; i++) {
+            createTree(Files.createDirectory(directory.resolve("dir" + i)), levels - 1);
+        }
+    }
+
+    @Benchmark
+    public List<?> findFile() throws Throwable {
+        return (List<?>) FIND_FILE.invokeExact(finder, rootDirectory, TARGET);
+    }
+
+    @Benchmark
+    public List<?> findFileParallel() throws Throwable {
+        return (List<?>) FIND_FILE_PARALLEL.invokeExact(finder, rootDirectory, TARGET);
+    }
+}
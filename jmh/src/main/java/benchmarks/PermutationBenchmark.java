@@ -0,0 +1,87 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of every permutation engine on the same inputs. One operation generates all
+ * distinct permutations of the input; run with {@code -prof gc} to see bytes allocated per
+ * operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermutationBenchmark {
+    private static final String GENERATOR = "StringPermutationsRecursive";
+    private static final MethodHandle GENERATE =
+        Api.method(GENERATOR, "generatePermutations", List.class, String.class);
+    private static final MethodHandle GENERATE_WITH_SWAP =
+        Api.method(GENERATOR, "generatePermutationsWithSwap", List.class, String.class);
+    private static final MethodHandle LEXICOGRAPHIC_ITERATOR =
+        Api.method(GENERATOR, "lexicographicIterator", Iterator.class, String.class);
+    private static final MethodHandle FOR_EACH_VIEW =
+        Api.method("PermutationIterator", "forEachView", void.class, Consumer.class);
+    private static final MethodHandle PARALLEL_STREAM =
+        Api.method(GENERATOR, "parallelStream", Stream.class, String.class);
+
+    @Param({"abcdefg", "abcdefghi", "aabbccdde"})
+    public String input;
+
+    private Object generator;
+
+    @Setup
+    public void setUp() {
+        generator = Api.newInstance(GENERATOR);
+    }
+
+    @Benchmark
+    public List<?> recursive() throws Throwable {
+        return (List<?>) GENERATE.invokeExact(generator, input);
+    }
+
+    @Benchmark
+    public List<?> swap() throws Throwable {
+        return (List<?>) GENERATE_WITH_SWAP.invokeExact(generator, input);
+    }
+
+    @Benchmark
+    public void lexicographicIterator(Blackhole blackhole) throws Throwable {
+        Iterator<?> iterator = (Iterator<?>) LEXICOGRAPHIC_ITERATOR.invokeExact(generator, input);
+        while (iterator.hasNext()) {
+            blackhole.consume(iterator.next());
+        }
+    }
+
+    @Benchmark
+    public void lexicographicView(Blackhole blackhole) throws Throwable {
+        Object iterator = (Iterator<?>) LEXICOGRAPHIC_ITERATOR.invokeExact(generator, input);
+        Consumer<char[]> consumer = blackhole::consume;
+        FOR_EACH_VIEW.invokeExact(iterator, consumer);
+    }
+
+    @Benchmark
+    public int parallelStream() throws Throwable {
+        // count() would be answered from the known size without generating anything
+        return ((Stream<?>) PARALLEL_STREAM.invokeExact(generator, input)).mapToInt(Object::hashCode).sum();
+    }
+}